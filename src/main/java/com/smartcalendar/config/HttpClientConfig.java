@@ -0,0 +1,65 @@
+package com.smartcalendar.config;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The one outbound client for OpenAI (chat and Whisper). Reactor Netty keeps a separate pool per remote host, so
+ * {@code max-connections} caps each upstream on its own; callers beyond it wait in a bounded queue and fail fast
+ * once that is full, instead of opening more sockets to a slow upstream. Pool gauges are published as
+ * {@code reactor.netty.connection.provider.*} (active, idle, pending).
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider outboundConnectionProvider(
+            @Value("${app.http.max-connections:50}") int maxConnections,
+            @Value("${app.http.pending-acquire-max:200}") int pendingAcquireMax,
+            @Value("${app.http.pending-acquire-timeout:PT10S}") Duration pendingAcquireTimeout,
+            @Value("${app.http.max-idle-time:PT30S}") Duration maxIdleTime,
+            @Value("${app.http.max-life-time:PT5M}") Duration maxLifeTime) {
+        return ConnectionProvider.builder("outbound")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public HttpClient outboundHttpClient(
+            ConnectionProvider outboundConnectionProvider,
+            @Value("${app.http.connect-timeout:PT5S}") Duration connectTimeout,
+            @Value("${app.http.response-timeout:PT60S}") Duration responseTimeout,
+            @Value("${app.http.write-timeout:PT30S}") Duration writeTimeout,
+            @Value("${app.http.compress:true}") boolean compress) {
+        return HttpClient.create(outboundConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .compress(compress)
+                // Applies between reads of one response, so a long streamed answer is fine as long as it keeps flowing
+                .responseTimeout(responseTimeout)
+                .doOnConnected(connection -> connection.addHandlerLast(
+                        new WriteTimeoutHandler(writeTimeout.toMillis(), TimeUnit.MILLISECONDS)));
+    }
+
+    @Bean
+    public WebClient outboundWebClient(WebClient.Builder builder, HttpClient outboundHttpClient) {
+        return builder.clientConnector(new ReactorClientHttpConnector(outboundHttpClient)).build();
+    }
+}
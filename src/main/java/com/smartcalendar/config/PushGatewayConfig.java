@@ -0,0 +1,25 @@
+package com.smartcalendar.config;
+
+import com.smartcalendar.service.LoggingPushGateway;
+import com.smartcalendar.service.PushGateway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Falls back to a gateway that only logs when neither FCM (which needs {@code app.push.fcm.project-id}) nor the
+ * local test gateway is active, so push is never required for the server to start.
+ */
+@Configuration
+public class PushGatewayConfig {
+    private static final Logger logger = LoggerFactory.getLogger(PushGatewayConfig.class);
+
+    @Bean
+    @ConditionalOnMissingBean(PushGateway.class)
+    public PushGateway loggingPushGateway() {
+        logger.warn("No push gateway configured; push notifications will only be logged");
+        return new LoggingPushGateway();
+    }
+}
@@ -1,12 +1,17 @@
 package com.smartcalendar.controller;
 
+import com.smartcalendar.exceptions.PayloadTooLargeException;
+import com.smartcalendar.exceptions.UpstreamUnavailableException;
 import com.smartcalendar.service.AudioProcessingService;
 import com.smartcalendar.service.ChatGPTService;
+import com.smartcalendar.service.LlmBudget;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Mono;
 
+import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 
@@ -17,24 +22,32 @@ public class AudioController {
 
     private final AudioProcessingService audioProcessingService;
     private final ChatGPTService chatGPTService;
+    private final LlmBudget llmBudget;
 
     @PostMapping("/process")
-    public ResponseEntity<?> processAudio(@RequestParam("file") MultipartFile file) {
+    public Mono<ResponseEntity<?>> processAudio(@RequestParam("file") MultipartFile file, Principal principal) {
+        llmBudget.checkRequest(principal.getName());
+        String transcript;
         try {
-            String transcript = audioProcessingService.transcribeAudio(file);
-
-            Map<String, Object> response = chatGPTService.processTranscript(transcript);
-
-            if (response.containsKey("error")) {
-                return ResponseEntity.badRequest().body(response);
-            }
-
-            Map<String, List<?>> data = (Map<String, List<?>>) (Map) response;
-            List<Object> entities = chatGPTService.convertToEntities(data);
-            return ResponseEntity.ok(entities);
-
+            transcript = audioProcessingService.transcribeAudio(file);
+        } catch (UpstreamUnavailableException | PayloadTooLargeException e) {
+            throw e;
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage()))));
         }
+
+        return chatGPTService.processTranscriptAsync(transcript)
+                .<ResponseEntity<?>>map(response -> {
+                    if (response.containsKey("error")) {
+                        return ResponseEntity.badRequest().body(response);
+                    }
+
+                    Map<String, List<?>> data = (Map<String, List<?>>) (Map) response;
+                    List<Object> entities = chatGPTService.convertToEntities(data);
+                    return ResponseEntity.ok(entities);
+                })
+                .onErrorResume(e -> !(e instanceof UpstreamUnavailableException),
+                        e -> Mono.just(ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())))))
+                .contextWrite(LlmBudget.forUser(principal.getName()));
     }
-}
\ No newline at end of file
+}
@@ -89,7 +89,10 @@ public class AuthController {
                 }
             }
 
-            String jwt = jwtService.generateToken(userDetails.getUsername());
+            Long userId = userDetails instanceof User dbUser
+                    ? dbUser.getId()
+                    : userService.findByUsername(userDetails.getUsername()).map(User::getId).orElse(null);
+            String jwt = jwtService.generateToken(userDetails.getUsername(), userId);
             logger.info("JWT token generated for user: {}", userDetails.getUsername());
 
             return ResponseEntity.ok(jwt);
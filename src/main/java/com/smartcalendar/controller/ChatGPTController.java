@@ -1,10 +1,17 @@
 package com.smartcalendar.controller;
 
+import com.smartcalendar.exceptions.UpstreamUnavailableException;
 import com.smartcalendar.service.ChatGPTService;
+import com.smartcalendar.service.LlmBudget;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 
@@ -14,46 +21,67 @@ import java.util.Map;
 public class ChatGPTController {
 
     private final ChatGPTService chatGPTService;
+    private final LlmBudget llmBudget;
 
     @PostMapping("/ask")
-    public ResponseEntity<String> askChatGPT(@RequestBody Map<String, String> requestBody) {
+    public Mono<ResponseEntity<String>> askChatGPT(@RequestBody Map<String, String> requestBody, Principal principal) {
+        llmBudget.checkRequest(principal.getName());
         String question = requestBody.get("question");
         String model = requestBody.getOrDefault("model", "gpt-3.5-turbo");
-        String response = chatGPTService.askChatGPT(question, model);
-        return ResponseEntity.ok(response);
+        return chatGPTService.askChatGPTAsync(question, model)
+                .map(ResponseEntity::ok)
+                .contextWrite(LlmBudget.forUser(principal.getName()));
+    }
+
+    // Deltas go out as JSON: a raw SSE data value loses its leading space and cannot carry a bare newline
+    @PostMapping(value = "/ask/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Map<String, String>>> streamChatGPT(@RequestBody Map<String, String> requestBody,
+                                                                    Principal principal) {
+        llmBudget.checkRequest(principal.getName());
+        String question = requestBody.get("question");
+        String model = requestBody.getOrDefault("model", "gpt-3.5-turbo");
+        return chatGPTService.streamChatGPT(question, model)
+                .map(token -> ServerSentEvent.builder(Map.of("t", token)).event("token").build())
+                .concatWith(Mono.just(ServerSentEvent.builder(Map.<String, String>of()).event("done").build()))
+                .onErrorResume(e -> Mono.just(ServerSentEvent.builder(Map.of("error", String.valueOf(e.getMessage())))
+                        .event("error").build()))
+                .contextWrite(LlmBudget.forUser(principal.getName()));
     }
 
     @PostMapping("/generate")
-    public ResponseEntity<Map<String, List<?>>> generateEventsAndTasks(@RequestBody Map<String, String> requestBody) {
+    public Mono<ResponseEntity<Map<String, List<?>>>> generateEventsAndTasks(@RequestBody Map<String, String> requestBody,
+                                                                           Principal principal) {
+        llmBudget.checkRequest(principal.getName());
         String userQuery = requestBody.get("query");
-        Map<String, List<?>> result = chatGPTService.generateEventsAndTasks(userQuery);
-        return ResponseEntity.ok(result);
+        return chatGPTService.generateEventsAndTasksAsync(userQuery)
+                .map(ResponseEntity::ok)
+                .contextWrite(LlmBudget.forUser(principal.getName()));
     }
 
     @PostMapping("/generate/entities")
-    public ResponseEntity<?> generateEntities(@RequestBody Map<String, String> requestBody) {
+    public Mono<ResponseEntity<?>> generateEntities(@RequestBody Map<String, String> requestBody, Principal principal) {
+        llmBudget.checkRequest(principal.getName());
         String userQuery = requestBody.get("query");
 
-        try {
-            Map<String, Object> response = chatGPTService.processTranscript(userQuery);
-
-            if (response.containsKey("error")) {
-                return ResponseEntity.badRequest().body(response);
-            }
-
-            List<?> events = response.get("events") instanceof List ? (List<?>) response.get("events") : List.of();
-            List<?> tasks = response.get("tasks") instanceof List ? (List<?>) response.get("tasks") : List.of();
+        return chatGPTService.processTranscriptAsync(userQuery)
+                .<ResponseEntity<?>>map(response -> {
+                    if (response.containsKey("error")) {
+                        return ResponseEntity.badRequest().body(response);
+                    }
 
-            Map<String, List<?>> validResponse = Map.of(
-                    "events", events,
-                    "tasks", tasks
-            );
+                    List<?> events = response.get("events") instanceof List ? (List<?>) response.get("events") : List.of();
+                    List<?> tasks = response.get("tasks") instanceof List ? (List<?>) response.get("tasks") : List.of();
 
-            List<Object> entities = chatGPTService.convertToEntities(validResponse);
-            return ResponseEntity.ok(entities);
+                    Map<String, List<?>> validResponse = Map.of(
+                            "events", events,
+                            "tasks", tasks
+                    );
 
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+                    List<Object> entities = chatGPTService.convertToEntities(validResponse);
+                    return ResponseEntity.ok(entities);
+                })
+                .onErrorResume(e -> !(e instanceof UpstreamUnavailableException),
+                        e -> Mono.just(ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())))))
+                .contextWrite(LlmBudget.forUser(principal.getName()));
     }
-}
\ No newline at end of file
+}
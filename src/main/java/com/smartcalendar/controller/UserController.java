@@ -1,26 +1,53 @@
 package com.smartcalendar.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartcalendar.dto.AddCollaborativeEventRequest;
+import com.smartcalendar.dto.BulkInviteRequest;
+import com.smartcalendar.dto.ChangeSet;
 import com.smartcalendar.dto.DailyTaskDto;
 import com.smartcalendar.dto.EventDto;
+import com.smartcalendar.dto.KeysetPage;
+import com.smartcalendar.dto.ReminderRequest;
 import com.smartcalendar.dto.StatisticsData;
+import com.smartcalendar.dto.SyncRequest;
+import com.smartcalendar.dto.SyncResult;
 import com.smartcalendar.model.Event;
+import com.smartcalendar.model.Reminder;
 import com.smartcalendar.model.Task;
 import com.smartcalendar.model.User;
+import com.smartcalendar.security.UserPrincipal;
+import com.smartcalendar.service.EventFanoutService;
+import com.smartcalendar.service.ReminderService;
+import com.smartcalendar.service.SyncService;
 import com.smartcalendar.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SYNC_OPERATIONS = 1000;
+    private static final int MAX_BULK_INVITES = 500;
+
     private final UserService userService;
+    private final SyncService syncService;
+    private final ReminderService reminderService;
+    private final EventFanoutService eventFanoutService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<List<User>> getAllUsers() {
@@ -38,10 +65,8 @@ public class UserController {
     public ResponseEntity<User> updateEmail(
             @PathVariable Long id,
             @RequestBody String newEmail,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!currentUser.getId().equals(id)) {
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.id().equals(id)) {
             return ResponseEntity.status(403).build();
         }
         User updatedUser = userService.updateEmail(id, newEmail);
@@ -52,11 +77,9 @@ public class UserController {
     public ResponseEntity<Void> updateTaskStatus(
             @PathVariable UUID taskId,
             @RequestBody Map<String, Boolean> requestBody,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         Task task = userService.getTaskById(taskId);
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!task.getUser().getId().equals(currentUser.getId())) {
+        if (!task.getUser().getId().equals(principal.id())) {
             return ResponseEntity.status(403).build();
         }
         boolean completed = requestBody.get("completed");
@@ -67,11 +90,9 @@ public class UserController {
     @GetMapping("/tasks/{taskId}/description")
     public ResponseEntity<String> getTaskDescription(
             @PathVariable UUID taskId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         Task task = userService.getTaskById(taskId);
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!task.getUser().getId().equals(currentUser.getId())) {
+        if (!task.getUser().getId().equals(principal.id())) {
             return ResponseEntity.status(403).build();
         }
         String description = userService.getTaskDescription(taskId);
@@ -93,45 +114,139 @@ public class UserController {
     @GetMapping("/{userId}/tasks")
     public ResponseEntity<List<Task>> getTasksByUserId(
             @PathVariable Long userId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!currentUser.getId().equals(userId)) {
+            @AuthenticationPrincipal UserPrincipal principal,
+            WebRequest webRequest) {
+        if (!principal.id().equals(userId)) {
             return ResponseEntity.status(403).build();
         }
+        String etag = calendarEtag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<Task> tasks = userService.findTasksByUserId(userId);
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok().eTag(etag).body(tasks);
+    }
+
+    @GetMapping("/{userId}/tasks/page")
+    public ResponseEntity<KeysetPage<Task>> getTasksPage(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.id().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(userService.findTasksPage(userId, cursor, limit));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{userId}/events/page")
+    public ResponseEntity<KeysetPage<EventDto>> getEventsPage(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.id().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(userService.findEventsPage(userId, cursor, limit));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{userId}/events/stream")
+    public ResponseEntity<StreamingResponseBody> streamEventsByUserId(
+            @PathVariable Long userId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.id().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                userService.forEachEventDto(userId, dto -> {
+                    try {
+                        generator.writeObject(dto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @GetMapping("/{userId}/changes")
+    public ResponseEntity<ChangeSet> getChanges(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.id().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(userService.findChangesSince(userId, since, limit));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{userId}/events")
     public ResponseEntity<List<EventDto>> getEventsByUserId(
             @PathVariable Long userId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!currentUser.getId().equals(userId)) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @AuthenticationPrincipal UserPrincipal principal,
+            WebRequest webRequest) {
+        if (!principal.id().equals(userId)) {
             return ResponseEntity.status(403).build();
         }
-        List<Event> events = userService.findEventsByUserId(userId);
+        if (!isValidWindow(from, to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = calendarEtag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<Event> events = from == null
+                ? userService.findEventsByUserId(userId)
+                : userService.findEventsByUserIdBetween(userId, from, to);
         List<EventDto> eventDtos = events.stream()
                 .map(userService::toEventDto)
                 .toList();
-        return ResponseEntity.ok(eventDtos);
+        return ResponseEntity.ok().eTag(etag).body(eventDtos);
     }
 
     @PostMapping("/{userId}/events")
     public ResponseEntity<Map<String, Object>> createEvent(
             @PathVariable Long userId,
             @RequestBody Event event,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!currentUser.getId().equals(userId)) {
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.id().equals(userId)) {
             return ResponseEntity.status(403).build();
         }
+        User currentUser = userService.getUserReference(principal.id());
         event.setOrganizer(currentUser);
         event.setShared(false);
-        event.setInvitees(new ArrayList<>());
+        event.setInvitations(new ArrayList<>());
         event.setParticipants(List.of(currentUser));
 
         try {
@@ -146,18 +261,14 @@ public class UserController {
     public ResponseEntity<Void> updateEvent(
             @PathVariable UUID eventId,
             @RequestBody Event event,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         Event existingEvent = userService.getEventById(eventId);
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!existingEvent.getOrganizer().getId().equals(currentUser.getId())) {
+        if (!existingEvent.getOrganizer().getId().equals(principal.id())) {
             return ResponseEntity.status(403).build();
         }
 
         userService.editEvent(eventId, event);
 
-        userService.notifyEventUpdated(existingEvent, event);
-
         return ResponseEntity.ok().build();
     }
 
@@ -166,25 +277,37 @@ public class UserController {
     public ResponseEntity<Map<String, Object>> createTask(
             @PathVariable Long userId,
             @RequestBody Task task,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!currentUser.getId().equals(userId)) {
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.id().equals(userId)) {
             return ResponseEntity.status(403).build();
         }
-        task.setUser(currentUser);
+        task.setUser(userService.getUserReference(principal.id()));
         Task createdTask = userService.createTaskWithCustomId(task);
         return ResponseEntity.ok(Map.of("id", createdTask.getId()));
     }
 
+    @PostMapping("/{userId}/sync")
+    public ResponseEntity<?> sync(
+            @PathVariable Long userId,
+            @RequestBody SyncRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.id().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+        if (request.getOperations() == null || request.getOperations().size() > MAX_SYNC_OPERATIONS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Between 0 and " + MAX_SYNC_OPERATIONS + " operations are allowed"));
+        }
+        List<SyncResult> results = syncService.apply(userId, request.getOperations());
+        return ResponseEntity.ok(Map.of("results", results));
+    }
+
     @DeleteMapping("/tasks/{taskId}")
     public ResponseEntity<Void> deleteTask(
             @PathVariable UUID taskId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         Task task = userService.getTaskById(taskId);
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!task.getUser().getId().equals(currentUser.getId())) {
+        if (!task.getUser().getId().equals(principal.id())) {
             return ResponseEntity.status(403).build();
         }
         userService.deleteTask(taskId);
@@ -195,11 +318,9 @@ public class UserController {
     public ResponseEntity<Void> editTask(
             @PathVariable UUID taskId,
             @RequestBody Task task,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         Task existingTask = userService.getTaskById(taskId);
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!existingTask.getUser().getId().equals(currentUser.getId())) {
+        if (!existingTask.getUser().getId().equals(principal.id())) {
             return ResponseEntity.status(403).build();
         }
         userService.editTask(taskId, task);
@@ -207,9 +328,8 @@ public class UserController {
     }
 
     @GetMapping("/me")
-    public ResponseEntity<Map<String, Object>> getCurrentUserInfo(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public ResponseEntity<Map<String, Object>> getCurrentUserInfo(@AuthenticationPrincipal UserPrincipal principal) {
+        User user = userService.findUserById(principal.id());
         Map<String, Object> result = Map.of(
                 "id", user.getId(),
                 "username", user.getUsername(),
@@ -221,32 +341,49 @@ public class UserController {
     @GetMapping("/{userId}/events/dailytasks")
     public ResponseEntity<List<DailyTaskDto>> getAllEventsAsDailyTasks(
             @PathVariable Long userId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!currentUser.getId().equals(userId)) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @AuthenticationPrincipal UserPrincipal principal,
+            WebRequest webRequest) {
+        if (!principal.id().equals(userId)) {
             return ResponseEntity.status(403).build();
         }
-        List<DailyTaskDto> dailyTasks = userService.findAllEventsAsDailyTaskDto(userId);
-        return ResponseEntity.ok(dailyTasks);
+        if (!isValidWindow(from, to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = calendarEtag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<DailyTaskDto> dailyTasks = from == null
+                ? userService.findAllEventsAsDailyTaskDto(userId)
+                : userService.findEventsAsDailyTaskDtoBetween(userId, from, to);
+        return ResponseEntity.ok().eTag(etag).body(dailyTasks);
+    }
+
+    private boolean isValidWindow(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        return from != null && to != null && from.isBefore(to);
+    }
+
+    private String calendarEtag(Long userId) {
+        return "\"" + userId + "-" + userService.getCalendarVersion(userId) + "\"";
     }
 
     @PatchMapping("/events/{eventId}/status")
     public ResponseEntity<EventDto> updateEventStatus(
             @PathVariable UUID eventId,
             @RequestBody Map<String, Boolean> requestBody,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         Event event = userService.getEventById(eventId);
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!event.getOrganizer().getId().equals(currentUser.getId())) {
+        if (!event.getOrganizer().getId().equals(principal.id())) {
             return ResponseEntity.status(403).build();
         }
         boolean completed = requestBody.get("completed");
         Event updatedEvent = userService.updateEventStatus(eventId, completed);
 
-        userService.notifyEventUpdated(event, updatedEvent);
-
         EventDto updatedEventDto = userService.toEventDto(updatedEvent);
         return ResponseEntity.ok(updatedEventDto);
     }
@@ -254,17 +391,13 @@ public class UserController {
     @DeleteMapping("/events/{eventId}")
     public ResponseEntity<Map<String, UUID>> deleteEventById(
             @PathVariable UUID eventId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            @AuthenticationPrincipal UserPrincipal principal) {
         Event event = userService.getEventById(eventId);
 
-        if (!event.getOrganizer().getId().equals(currentUser.getId())) {
+        if (!event.getOrganizer().getId().equals(principal.id())) {
             return ResponseEntity.status(403).body(Map.of());
         }
 
-        userService.notifyEventDeleted(event);
-
         UUID deletedId = userService.deleteEventById(eventId);
         return ResponseEntity.ok(Map.of("id", deletedId));
     }
@@ -272,35 +405,80 @@ public class UserController {
     @GetMapping("/{userId}/statistics")
     public ResponseEntity<StatisticsData> getStatistics(
             @PathVariable Long userId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!currentUser.getId().equals(userId)) {
+            @AuthenticationPrincipal UserPrincipal principal,
+            WebRequest webRequest) {
+        if (!principal.id().equals(userId)) {
             return ResponseEntity.status(403).build();
         }
+        String etag = calendarEtag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         StatisticsData statistics = userService.getStatistics(userId);
-        return ResponseEntity.ok(statistics);
+        return ResponseEntity.ok().eTag(etag).body(statistics);
     }
 
     @PutMapping("/{userId}/statistics")
     public ResponseEntity<Void> updateStatistics(
             @PathVariable Long userId,
             @RequestBody StatisticsData statisticsData,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!currentUser.getId().equals(userId)) {
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.id().equals(userId)) {
             return ResponseEntity.status(403).build();
         }
         userService.updateStatistics(userId, statisticsData);
         return ResponseEntity.ok().build();
     }
 
+    @GetMapping("/{userId}/reminders")
+    public ResponseEntity<List<Reminder>> getReminders(
+            @PathVariable Long userId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.id().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(reminderService.getReminders(userId));
+    }
+
+    @PostMapping("/{userId}/reminders")
+    public ResponseEntity<?> addReminder(
+            @PathVariable Long userId,
+            @RequestBody ReminderRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.id().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+        if (request.getTargetType() == null || request.getTargetId() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "targetType and targetId are required"));
+        }
+        try {
+            return reminderService.addReminder(userId, request.getTargetType(), request.getTargetId(),
+                            request.getMinutesBefore())
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "Target not found")));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{userId}/reminders/{reminderId}")
+    public ResponseEntity<Void> deleteReminder(
+            @PathVariable Long userId,
+            @PathVariable Long reminderId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (!principal.id().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+        return reminderService.deleteReminder(userId, reminderId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
     @PostMapping("/events/{eventId}/invite")
     public ResponseEntity<?> inviteUserToEvent(
             @PathVariable UUID eventId,
             @RequestBody Map<String, String> requestBody,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         String loginOrEmail = requestBody.get("loginOrEmail");
         Event event = userService.getEventById(eventId);
 
@@ -313,25 +491,49 @@ public class UserController {
         if (event.getParticipants() != null && event.getParticipants().contains(user)) {
             return ResponseEntity.badRequest().body(Map.of("error", "User is already a participant"));
         }
-        if (event.getInvitees() != null && event.getInvitees().contains(user.getEmail())) {
+        if (event.getInvitees().contains(user.getEmail())) {
             return ResponseEntity.badRequest().body(Map.of("error", "User is already invited"));
         }
-        if (event.getInvitees() == null) {
-            event.setInvitees(new ArrayList<>());
-        }
-        event.getInvitees().add(user.getEmail());
-        event.setShared(true);
 
-        userService.saveEvent(event);
-        userService.notifyInvitees(event);
+        userService.addInvitation(event, user.getEmail());
         return ResponseEntity.ok(Map.of("invited", user.getUsername()));
     }
 
+    @PostMapping("/events/{eventId}/invite/bulk")
+    public ResponseEntity<?> inviteUsersToEvent(
+            @PathVariable UUID eventId,
+            @RequestBody BulkInviteRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        List<String> loginsOrEmails = request.getLoginsOrEmails();
+        if (loginsOrEmails == null || loginsOrEmails.isEmpty() || loginsOrEmails.size() > MAX_BULK_INVITES) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Between 1 and " + MAX_BULK_INVITES + " invitees are allowed"));
+        }
+        Event event = userService.getEventById(eventId);
+        if (!event.getOrganizer().getId().equals(principal.id())) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(userService.inviteAll(event, loginsOrEmails));
+    }
+
+    @GetMapping("/events/{eventId}/fanout")
+    public ResponseEntity<?> getEventFanoutProgress(
+            @PathVariable UUID eventId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Event event = userService.getEventById(eventId);
+        if (!event.getOrganizer().getId().equals(principal.id())) {
+            return ResponseEntity.status(403).build();
+        }
+        return eventFanoutService.getProgress(eventId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/events/{eventId}/remove-invite")
     public ResponseEntity<?> removeInviteFromEvent(
             @PathVariable UUID eventId,
             @RequestBody Map<String, String> requestBody,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         String loginOrEmail = requestBody.get("loginOrEmail");
         Event event = userService.getEventById(eventId);
 
@@ -341,18 +543,14 @@ public class UserController {
         }
         User user = userOpt.get();
 
-        if (event.getInvitees() != null) {
-            event.getInvitees().remove(user.getEmail());
-            userService.saveEvent(event);
-        }
+        userService.removeInvitation(event, user.getEmail());
 
         return ResponseEntity.ok(Map.of("removedInvite", user.getUsername()));
     }
 
     @GetMapping("/me/invites")
-    public ResponseEntity<List<EventDto>> getMyInvites(@AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public ResponseEntity<List<EventDto>> getMyInvites(@AuthenticationPrincipal UserPrincipal principal) {
+        User currentUser = userService.findUserById(principal.id());
         List<Event> invites = userService.findEventsByInvitee(currentUser.getEmail());
         List<EventDto> inviteDtos = invites.stream()
                 .map(userService::toEventDto)
@@ -364,21 +562,15 @@ public class UserController {
     @PostMapping("/events/{eventId}/accept-invite")
     public ResponseEntity<?> acceptInvite(
             @PathVariable UUID eventId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User currentUser = userService.findUserById(principal.id());
         Event event = userService.getEventById(eventId);
 
-        if (event.getInvitees() == null || !event.getInvitees().contains(currentUser.getEmail())) {
+        if (!event.getInvitees().contains(currentUser.getEmail())) {
             return ResponseEntity.badRequest().body(Map.of("error", "No invite found for this user"));
         }
 
-        event.getInvitees().remove(currentUser.getEmail());
-        if (!event.getParticipants().contains(currentUser)) {
-            event.getParticipants().add(currentUser);
-        }
-        userService.saveEvent(event);
-        userService.notifyUserAddedToEvent(currentUser, event, currentUser.getDeviceToken());
+        userService.acceptInvitation(event, currentUser);
 
         return ResponseEntity.ok(Map.of("accepted", true));
     }
@@ -387,12 +579,10 @@ public class UserController {
     public ResponseEntity<?> removeParticipantFromEvent(
             @PathVariable UUID eventId,
             @RequestBody Map<String, String> requestBody,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            @AuthenticationPrincipal UserPrincipal principal) {
         Event event = userService.getEventById(eventId);
 
-        if (!event.getOrganizer().getId().equals(currentUser.getId())) {
+        if (!event.getOrganizer().getId().equals(principal.id())) {
             return ResponseEntity.status(403).body(Map.of("error", "Only organizer can remove participants"));
         }
 
@@ -403,14 +593,12 @@ public class UserController {
         }
         User user = userOpt.get();
 
-        if (user.getId().equals(currentUser.getId())) {
+        if (user.getId().equals(principal.id())) {
             return ResponseEntity.badRequest().body(Map.of("error", "Organizer cannot be removed"));
         }
 
-        boolean removed = event.getParticipants() != null && event.getParticipants().remove(user);
+        boolean removed = userService.removeParticipant(event, user);
         if (removed) {
-            userService.saveEvent(event);
-            userService.notifyUserRemovedFromEvent(user, event, user.getDeviceToken());
             return ResponseEntity.ok(Map.of("removedParticipant", user.getUsername()));
         } else {
             return ResponseEntity.badRequest().body(Map.of("error", "User is not a participant"));
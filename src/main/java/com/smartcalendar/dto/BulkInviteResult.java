@@ -0,0 +1,14 @@
+package com.smartcalendar.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkInviteResult {
+    private List<String> invited = new ArrayList<>();
+    private List<String> alreadyInvited = new ArrayList<>();
+    private List<String> alreadyParticipant = new ArrayList<>();
+    private List<String> notFound = new ArrayList<>();
+}
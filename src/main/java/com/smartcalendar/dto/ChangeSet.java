@@ -0,0 +1,22 @@
+package com.smartcalendar.dto;
+
+import com.smartcalendar.model.Task;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class ChangeSet {
+    private List<Task> tasks;
+    private List<EventDto> events;
+    private List<UUID> deletedTaskIds;
+    private List<UUID> deletedEventIds;
+    private boolean statisticsChanged;
+    private String syncToken;
+    private boolean hasMore;
+    // The token was older than the retained change log; tasks and events are a full snapshot to replace local state
+    private boolean fullResync;
+}
@@ -17,6 +17,7 @@ public class EventDto {
     private String location;
     private EventType type;
     private LocalDateTime creationTime;
+    private LocalDateTime updatedAt;
     private UserShortDto organizer;
     private boolean completed;
     private boolean isShared;
@@ -0,0 +1,10 @@
+package com.smartcalendar.dto;
+
+/**
+ * One notification recipient read straight from the event's join tables; {@code id} is the keyset cursor.
+ */
+public record EventRecipient(Long id, String email, String deviceToken) {
+    public EventRecipient(Long id, String email) {
+        this(id, email, null);
+    }
+}
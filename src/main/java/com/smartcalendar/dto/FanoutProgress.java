@@ -0,0 +1,14 @@
+package com.smartcalendar.dto;
+
+import com.smartcalendar.model.FanoutJob;
+import com.smartcalendar.model.FanoutStatus;
+
+import java.time.LocalDateTime;
+
+public record FanoutProgress(Long jobId, FanoutStatus status, long total, long processed,
+                             LocalDateTime createdAt, LocalDateTime finishedAt) {
+    public static FanoutProgress of(FanoutJob job) {
+        return new FanoutProgress(job.getId(), job.getStatus(), job.getTotal(), job.getProcessed(),
+                job.getCreatedAt(), job.getFinishedAt());
+    }
+}
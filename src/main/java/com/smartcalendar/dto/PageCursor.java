@@ -0,0 +1,40 @@
+package com.smartcalendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class PageCursor {
+    // null once paging has moved past every positioned row into the rows without one, which follow ordered by id
+    private LocalDateTime position;
+    private UUID id;
+
+    public String encode() {
+        String raw = (position != null ? position.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String position = raw.substring(0, separator);
+            return new PageCursor(
+                    position.isEmpty() ? null : LocalDateTime.parse(position),
+                    UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
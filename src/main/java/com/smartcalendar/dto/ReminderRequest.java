@@ -0,0 +1,13 @@
+package com.smartcalendar.dto;
+
+import com.smartcalendar.model.ReminderTargetType;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class ReminderRequest {
+    private ReminderTargetType targetType;
+    private UUID targetId;
+    private int minutesBefore;
+}
@@ -0,0 +1,20 @@
+package com.smartcalendar.dto;
+
+import com.smartcalendar.model.Event;
+import com.smartcalendar.model.Task;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class SyncOperation {
+    public enum Action { CREATE, UPDATE, DELETE }
+
+    public enum EntityType { TASK, EVENT }
+
+    private Action action;
+    private EntityType entity;
+    private UUID id;
+    private Task task;
+    private Event event;
+}
@@ -0,0 +1,25 @@
+package com.smartcalendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class SyncResult {
+    public enum Status { APPLIED, INVALID, NOT_FOUND, FORBIDDEN, CONFLICT }
+
+    private int index;
+    private UUID id;
+    private Status status;
+    private String error;
+
+    public static SyncResult applied(int index, UUID id) {
+        return new SyncResult(index, id, Status.APPLIED, null);
+    }
+
+    public static SyncResult failed(int index, UUID id, Status status, String error) {
+        return new SyncResult(index, id, status, error);
+    }
+}
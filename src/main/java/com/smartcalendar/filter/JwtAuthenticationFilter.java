@@ -1,5 +1,6 @@
 package com.smartcalendar.filter;
 
+import com.smartcalendar.security.UserPrincipal;
 import com.smartcalendar.service.JwtService;
 import com.smartcalendar.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -7,9 +8,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,6 +22,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
@@ -32,6 +38,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Lazy
     private UserService userService;
 
+    @Value("${app.security.admin-usernames:}")
+    private Set<String> adminUsernames = Set.of();
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getServletPath();
@@ -42,31 +51,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
         logger.info("Starting JwtAuthenticationFilter for request: {}", request.getRequestURI());
         String header = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        JwtService.TokenClaims claims = null;
 
         if (header != null && header.startsWith("Bearer ")) {
-            token = header.substring(7);
-            username = jwtService.extractUsername(token);
-            logger.info("Extracted username from token: {}", username);
+            claims = jwtService.parseToken(header.substring(7)).orElse(null);
+            if (claims == null) {
+                logger.warn("Token is invalid or expired");
+            }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.loadUserByUsername(username);
-            if (jwtService.validateToken(token, userDetails.getUsername())) {
-                logger.info("Token is valid for username: {}", username);
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            logger.info("Token is valid for username: {}", claims.username());
+            UserPrincipal principal = userService.loadPrincipalByUsername(claims.username());
+            if (claims.userId() == null || claims.userId().equals(principal.id())) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, authoritiesOf(principal));
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             } else {
-                logger.warn("Token is invalid for username: {}", username);
+                logger.warn("Token user id does not match username: {}", claims.username());
             }
         } else {
-            logger.info("Username is null or context already has authentication");
+            logger.info("Token is missing or context already has authentication");
         }
 
         chain.doFilter(request, response);
         logger.info("Finished JwtAuthenticationFilter for request: {}", request.getRequestURI());
     }
-}
\ No newline at end of file
+
+    private Collection<? extends GrantedAuthority> authoritiesOf(UserPrincipal principal) {
+        if (adminUsernames.contains(principal.username())) {
+            return List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        }
+        return principal.getAuthorities();
+    }
+}
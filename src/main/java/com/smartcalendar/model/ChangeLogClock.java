@@ -0,0 +1,27 @@
+package com.smartcalendar.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single row that hands out change-log versions. A writer locks it just before commit and keeps the lock until the
+ * commit finishes, so versions become visible in the order they were handed out.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "change_log_clock")
+public class ChangeLogClock {
+    public static final long ID = 1L;
+
+    @Id
+    private Long id = ID;
+
+    @Column(nullable = false)
+    private long version;
+
+    // Entries up to this version may have been purged; older sync tokens need a full resync
+    @Column(name = "purged_through", nullable = false)
+    private long purgedThrough;
+}
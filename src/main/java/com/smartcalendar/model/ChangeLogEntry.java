@@ -0,0 +1,55 @@
+package com.smartcalendar.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_version", columnList = "version", unique = true),
+        @Index(name = "idx_change_log_user_version", columnList = "user_id, version"),
+        @Index(name = "idx_change_log_entity_version", columnList = "entity_id, version"),
+        @Index(name = "idx_change_log_changed_at", columnList = "changed_at")
+})
+public class ChangeLogEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_log_seq")
+    @SequenceGenerator(name = "change_log_seq", sequenceName = "change_log_seq", allocationSize = 50)
+    private Long id;
+
+    // null for an event change, which reaches the event's audience as it is when the log is read
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Handed out by ChangeLogClock at commit; ids follow insert order, versions follow commit order
+    @Column(nullable = false)
+    private long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private ChangeEntityType entityType;
+
+    @Column(name = "entity_id")
+    private UUID entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeOperation operation;
+
+    @Column(name = "changed_at")
+    private LocalDateTime changedAt = LocalDateTime.now();
+
+    public ChangeLogEntry(Long userId, ChangeEntityType entityType, UUID entityId, ChangeOperation operation) {
+        this.userId = userId;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+    }
+}
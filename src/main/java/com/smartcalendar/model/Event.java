@@ -17,7 +17,9 @@ import java.util.Map;
 import java.util.UUID;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        @Index(name = "idx_events_organizer_start", columnList = "organizer_id, start_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,6 +48,9 @@ public class Event {
 
     private LocalDateTime creationTime = LocalDateTime.now();
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @ManyToOne
     @JoinColumn(name = "organizer_id")
     @JsonBackReference(value = "organized_events")
@@ -67,20 +72,29 @@ public class Event {
     @Column
     private boolean isShared = false;
 
-    @ElementCollection
-    @CollectionTable(name = "event_invitees", joinColumns = @JoinColumn(name = "event_id"))
-    @Column(name = "invitee")
-    private List<String> invitees = new ArrayList<>();
+    @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
+    private List<Invitation> invitations = new ArrayList<>();
 
     @ManyToMany
     @JoinTable(
             name = "event_participants",
             joinColumns = @JoinColumn(name = "event_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            indexes = {
+                    @Index(name = "idx_event_participants_user", columnList = "user_id, event_id"),
+                    @Index(name = "idx_event_participants_event", columnList = "event_id, user_id")
+            }
     )
     @JsonIgnore
     private List<User> participants = new ArrayList<>();
 
+    @PrePersist
+    @PreUpdate
+    private void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+
     public LocalDateTime getEnd() {
         return end;
     }
@@ -92,4 +106,12 @@ public class Event {
     public List<Tag> getTags() {
         return tags;
     }
+
+    @JsonProperty(value = "invitees", access = JsonProperty.Access.READ_ONLY)
+    public List<String> getInvitees() {
+        return invitations.stream()
+                .filter(invitation -> invitation.getStatus() == InvitationStatus.PENDING)
+                .map(Invitation::getInviteeEmail)
+                .toList();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.smartcalendar.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "fanout_jobs", indexes = {
+        @Index(name = "idx_fanout_jobs_status", columnList = "status, id"),
+        @Index(name = "idx_fanout_jobs_event", columnList = "event_id, id")
+})
+public class FanoutJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @Column(name = "excluded_user_id")
+    private Long excludedUserId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "payload_id", nullable = false)
+    private NotificationPayload payload;
+
+    @Column(name = "coalesce_scope")
+    private String coalesceScope;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FanoutStatus status = FanoutStatus.PENDING;
+
+    @Column(name = "cancel_requested", nullable = false)
+    private boolean cancelRequested = false;
+
+    @Column(nullable = false)
+    private long total;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(name = "participant_cursor", nullable = false)
+    private long participantCursor;
+
+    @Column(name = "invitee_cursor", nullable = false)
+    private long inviteeCursor;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime finishedAt;
+
+    public FanoutJob(UUID eventId, Long excludedUserId, NotificationPayload payload, String coalesceScope, long total) {
+        this.eventId = eventId;
+        this.excludedUserId = excludedUserId;
+        this.payload = payload;
+        this.coalesceScope = coalesceScope;
+        this.total = total;
+    }
+}
@@ -0,0 +1,8 @@
+package com.smartcalendar.model;
+
+public enum FanoutStatus {
+    PENDING,
+    RUNNING,
+    DONE,
+    CANCELLED
+}
@@ -0,0 +1,48 @@
+package com.smartcalendar.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "event_invitations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_invitations_invitee_event", columnNames = {"invitee_email", "event_id"}),
+        indexes = {
+                @Index(name = "idx_invitations_invitee_status", columnList = "invitee_email, status, event_id"),
+                @Index(name = "idx_invitations_event", columnList = "event_id, id")
+        })
+public class Invitation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "event_id", nullable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Event event;
+
+    @Column(name = "invitee_email", nullable = false)
+    private String inviteeEmail;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private InvitationStatus status = InvitationStatus.PENDING;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public Invitation(Event event, String inviteeEmail) {
+        this.event = event;
+        this.inviteeEmail = inviteeEmail;
+    }
+}
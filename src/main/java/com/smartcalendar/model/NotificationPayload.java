@@ -0,0 +1,38 @@
+package com.smartcalendar.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "notification_payload")
+public class NotificationPayload {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 1000)
+    private String subject;
+
+    @Column(length = 10000)
+    private String body;
+
+    @Column(name = "push_title", length = 1000)
+    private String pushTitle;
+
+    @Column(name = "push_body", length = 10000)
+    private String pushBody;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public NotificationPayload(String subject, String body, String pushTitle, String pushBody) {
+        this.subject = subject;
+        this.body = body;
+        this.pushTitle = pushTitle;
+        this.pushBody = pushBody;
+    }
+}
@@ -0,0 +1,11 @@
+package com.smartcalendar.model;
+
+public enum NotificationType {
+    EVENT_INVITATION,
+    EVENT_PARTICIPANT_ADDED,
+    EVENT_PARTICIPANT_REMOVED,
+    EVENT_UPDATED,
+    EVENT_DELETED,
+    EVENT_REMINDER,
+    TASK_REMINDER
+}
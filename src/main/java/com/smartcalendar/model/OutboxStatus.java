@@ -0,0 +1,5 @@
+package com.smartcalendar.model;
+
+public enum OutboxStatus {
+    PENDING, PROCESSING, SENT, DEAD
+}
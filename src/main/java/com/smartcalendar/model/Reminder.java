@@ -0,0 +1,50 @@
+package com.smartcalendar.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "reminders", indexes = {
+        @Index(name = "idx_reminders_fire_at", columnList = "fire_at, id"),
+        @Index(name = "idx_reminders_target", columnList = "target_id"),
+        @Index(name = "idx_reminders_user_id", columnList = "user_id")
+})
+public class Reminder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false)
+    private ReminderTargetType targetType;
+
+    @Column(name = "target_id", nullable = false)
+    private UUID targetId;
+
+    @Column(name = "minutes_before", nullable = false)
+    private int minutesBefore;
+
+    @Column(name = "fire_at", nullable = false)
+    private LocalDateTime fireAt;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public Reminder(Long userId, ReminderTargetType targetType, UUID targetId, int minutesBefore, LocalDateTime fireAt) {
+        this.userId = userId;
+        this.targetType = targetType;
+        this.targetId = targetId;
+        this.minutesBefore = minutesBefore;
+        this.fireAt = fireAt;
+    }
+}
@@ -0,0 +1,6 @@
+package com.smartcalendar.model;
+
+public enum ReminderTargetType {
+    EVENT,
+    TASK
+}
@@ -13,12 +13,13 @@ import java.util.UUID;
 
 @Entity
 @Data
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_user_creation", columnList = "user_id, creation_time, id")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Task {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
 
     @Column
@@ -31,10 +32,30 @@ public class Task {
     private LocalDateTime dueDateTime;
     private Boolean allDay = false;
 
+    @Column(name = "creation_time", nullable = false)
     private LocalDateTime creationTime = LocalDateTime.now();
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     @JsonBackReference(value = "user_tasks")
     private User user;
+
+    @PrePersist
+    private void onPersist() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+        if (creationTime == null) {
+            creationTime = LocalDateTime.now();
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    private void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
 }
\ No newline at end of file
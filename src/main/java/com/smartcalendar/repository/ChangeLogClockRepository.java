@@ -0,0 +1,30 @@
+package com.smartcalendar.repository;
+
+import com.smartcalendar.model.ChangeLogClock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface ChangeLogClockRepository extends JpaRepository<ChangeLogClock, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ChangeLogClock c WHERE c.id = :id")
+    Optional<ChangeLogClock> findForUpdate(Long id);
+
+    @Query("SELECT c.version FROM ChangeLogClock c WHERE c.id = :id")
+    Optional<Long> findVersion(Long id);
+
+    @Query("SELECT c.purgedThrough FROM ChangeLogClock c WHERE c.id = :id")
+    Optional<Long> findPurgedThrough(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChangeLogClock c SET c.purgedThrough = :version WHERE c.id = :id AND c.purgedThrough < :version")
+    int advancePurgedThrough(Long id, long version);
+}
@@ -0,0 +1,40 @@
+package com.smartcalendar.repository;
+
+import com.smartcalendar.model.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+    List<ChangeLogEntry> findByUserIdAndVersionGreaterThanOrderByVersionAsc(Long userId, long version, Pageable pageable);
+
+    // Event-scoped entries reach whoever organizes or takes part in the event at read time
+    @Query("SELECT c FROM ChangeLogEntry c WHERE c.userId IS NULL AND c.version > :version " +
+            "AND (c.entityId IN (SELECT e.id FROM Event e WHERE e.organizer.id = :userId) " +
+            "OR c.entityId IN (SELECT pe.id FROM Event pe JOIN pe.participants p WHERE p.id = :userId)) " +
+            "ORDER BY c.version")
+    List<ChangeLogEntry> findEventScopedSince(Long userId, long version, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(c.version), 0) FROM ChangeLogEntry c WHERE c.userId = :userId")
+    long findLatestVersion(Long userId);
+
+    @Query("SELECT COALESCE(MAX(c.version), 0) FROM ChangeLogEntry c WHERE c.userId IS NULL " +
+            "AND (c.entityId IN (SELECT e.id FROM Event e WHERE e.organizer.id = :userId) " +
+            "OR c.entityId IN (SELECT pe.id FROM Event pe JOIN pe.participants p WHERE p.id = :userId))")
+    long findLatestEventScopedVersion(Long userId);
+
+    @Query("SELECT MAX(c.version) FROM ChangeLogEntry c WHERE c.changedAt < :cutoff")
+    Long findLastVersionBefore(LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry c WHERE c.version <= :version")
+    int deleteThroughVersion(long version);
+}
@@ -1,16 +1,66 @@
 package com.smartcalendar.repository;
 
+import com.smartcalendar.dto.EventRecipient;
 import com.smartcalendar.model.Event;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, UUID> {
     List<Event> findByOrganizerId(Long organizerId);
+    @Query("SELECT e FROM Event e WHERE e.organizer.id = :userId " +
+            "OR e.id IN (SELECT pe.id FROM Event pe JOIN pe.participants p WHERE p.id = :userId)")
+    List<Event> findByOrganizerOrParticipant(Long userId);
+    @Query("SELECT e FROM Event e WHERE (e.organizer.id = :userId " +
+            "OR e.id IN (SELECT pe.id FROM Event pe JOIN pe.participants p WHERE p.id = :userId)) " +
+            "AND e.start >= :from AND e.start < :to ORDER BY e.start")
+    List<Event> findByOrganizerOrParticipantBetween(Long userId, LocalDateTime from, LocalDateTime to);
+    // Keyset pages run over events with a start first, then over the ones without, so both can seek on an index
+    @Query("SELECT e FROM Event e WHERE (e.organizer.id = :userId " +
+            "OR e.id IN (SELECT pe.id FROM Event pe JOIN pe.participants p WHERE p.id = :userId)) " +
+            "AND e.start IS NOT NULL ORDER BY e.start, e.id")
+    List<Event> findPageByOrganizerOrParticipant(Long userId, Pageable pageable);
+    @Query("SELECT e FROM Event e WHERE (e.organizer.id = :userId " +
+            "OR e.id IN (SELECT pe.id FROM Event pe JOIN pe.participants p WHERE p.id = :userId)) " +
+            "AND (e.start > :afterStart OR (e.start = :afterStart AND e.id > :afterId)) " +
+            "ORDER BY e.start, e.id")
+    List<Event> findPageByOrganizerOrParticipantAfter(Long userId, LocalDateTime afterStart, UUID afterId,
+                                                      Pageable pageable);
+    @Query("SELECT e FROM Event e WHERE (e.organizer.id = :userId " +
+            "OR e.id IN (SELECT pe.id FROM Event pe JOIN pe.participants p WHERE p.id = :userId)) " +
+            "AND e.start IS NULL ORDER BY e.id")
+    List<Event> findUndatedPageByOrganizerOrParticipant(Long userId, Pageable pageable);
+    @Query("SELECT e FROM Event e WHERE (e.organizer.id = :userId " +
+            "OR e.id IN (SELECT pe.id FROM Event pe JOIN pe.participants p WHERE p.id = :userId)) " +
+            "AND e.start IS NULL AND e.id > :afterId ORDER BY e.id")
+    List<Event> findUndatedPageByOrganizerOrParticipantAfter(Long userId, UUID afterId, Pageable pageable);
+    @Query("SELECT e FROM Event e WHERE e.organizer.id = :userId " +
+            "OR e.id IN (SELECT pe.id FROM Event pe JOIN pe.participants p WHERE p.id = :userId) " +
+            "ORDER BY e.start, e.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Event> streamByOrganizerOrParticipant(Long userId);
+    @Query("SELECT p.id FROM Event e JOIN e.participants p WHERE e.id = :eventId")
+    List<Long> findParticipantIds(UUID eventId);
+    @Query("SELECT COUNT(p) FROM Event e JOIN e.participants p WHERE e.id = :eventId AND p.id <> :excludedUserId")
+    long countParticipantsExcluding(UUID eventId, Long excludedUserId);
+    // Keyset page over the event_participants join table, served by idx_event_participants_event
+    @Query("SELECT new com.smartcalendar.dto.EventRecipient(p.id, p.email, p.deviceToken) " +
+            "FROM Event e JOIN e.participants p WHERE e.id = :eventId AND p.id > :afterId AND p.id <> :excludedUserId " +
+            "ORDER BY p.id")
+    List<EventRecipient> findParticipantRecipients(UUID eventId, Long excludedUserId, Long afterId, Pageable pageable);
     @Query("SELECT e FROM Event e WHERE LOWER(e.location) = LOWER(:location) ORDER BY e.end ASC")
     List<Event> findByLocationIgnoreCase(String location);
     @Query("SELECT e FROM Event e WHERE LOWER(e.location) = LOWER(:location) AND :userId IS NOT NULL " +
@@ -0,0 +1,64 @@
+package com.smartcalendar.repository;
+
+import com.smartcalendar.model.FanoutJob;
+import com.smartcalendar.model.FanoutStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface FanoutJobRepository extends JpaRepository<FanoutJob, Long> {
+    // Oldest runnable job whose scope has no other job running, so two fan-outs never interleave for one event
+    @Query("SELECT j FROM FanoutJob j JOIN FETCH j.payload " +
+            "WHERE (j.status = com.smartcalendar.model.FanoutStatus.PENDING " +
+            "OR (j.status = com.smartcalendar.model.FanoutStatus.RUNNING AND j.leaseUntil < :now)) " +
+            "AND NOT EXISTS (SELECT o.id FROM FanoutJob o WHERE o.coalesceScope = j.coalesceScope AND o.id < j.id " +
+            "AND o.status IN (com.smartcalendar.model.FanoutStatus.PENDING, com.smartcalendar.model.FanoutStatus.RUNNING)) " +
+            "ORDER BY j.id")
+    List<FanoutJob> findRunnable(LocalDateTime now, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE FanoutJob j SET j.status = com.smartcalendar.model.FanoutStatus.RUNNING, j.leaseUntil = :leaseUntil " +
+            "WHERE j.id = :id AND (j.status = com.smartcalendar.model.FanoutStatus.PENDING " +
+            "OR (j.status = com.smartcalendar.model.FanoutStatus.RUNNING AND j.leaseUntil < :now))")
+    int claim(Long id, LocalDateTime now, LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE FanoutJob j SET j.participantCursor = :participantCursor, j.inviteeCursor = :inviteeCursor, " +
+            "j.processed = :processed, j.leaseUntil = :leaseUntil WHERE j.id = :id")
+    int recordProgress(Long id, long participantCursor, long inviteeCursor, long processed, LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE FanoutJob j SET j.status = :status, j.finishedAt = :finishedAt, j.leaseUntil = null WHERE j.id = :id")
+    int finish(Long id, FanoutStatus status, LocalDateTime finishedAt);
+
+    @Query("SELECT j.cancelRequested FROM FanoutJob j WHERE j.id = :id")
+    boolean isCancelRequested(Long id);
+
+    // Superseded jobs stop at their next wave; the newer job's rows replace theirs through coalescing
+    @Modifying
+    @Query("UPDATE FanoutJob j SET j.cancelRequested = true WHERE j.coalesceScope = :coalesceScope " +
+            "AND j.status IN (com.smartcalendar.model.FanoutStatus.PENDING, com.smartcalendar.model.FanoutStatus.RUNNING)")
+    int requestCancel(String coalesceScope);
+
+    Optional<FanoutJob> findFirstByEventIdOrderByIdDesc(UUID eventId);
+
+    @Query("SELECT j.payload.id FROM FanoutJob j WHERE j.finishedAt < :cutoff")
+    List<Long> findPayloadIdsFinishedBefore(LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FanoutJob j WHERE j.finishedAt < :cutoff")
+    int deleteFinishedBefore(LocalDateTime cutoff);
+}
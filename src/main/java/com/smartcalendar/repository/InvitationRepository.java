@@ -0,0 +1,26 @@
+package com.smartcalendar.repository;
+
+import com.smartcalendar.dto.EventRecipient;
+import com.smartcalendar.model.Event;
+import com.smartcalendar.model.Invitation;
+import com.smartcalendar.model.InvitationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface InvitationRepository extends JpaRepository<Invitation, Long> {
+    @Query("SELECT i.event FROM Invitation i WHERE i.inviteeEmail = :inviteeEmail AND i.status = :status")
+    List<Event> findEventsByInviteeEmailAndStatus(String inviteeEmail, InvitationStatus status);
+
+    long countByEventIdAndStatus(UUID eventId, InvitationStatus status);
+
+    @Query("SELECT new com.smartcalendar.dto.EventRecipient(i.id, i.inviteeEmail) FROM Invitation i " +
+            "WHERE i.event.id = :eventId AND i.status = com.smartcalendar.model.InvitationStatus.PENDING " +
+            "AND i.id > :afterId ORDER BY i.id")
+    List<EventRecipient> findPendingInviteeRecipients(UUID eventId, Long afterId, Pageable pageable);
+}
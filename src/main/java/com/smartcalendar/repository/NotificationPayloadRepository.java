@@ -0,0 +1,18 @@
+package com.smartcalendar.repository;
+
+import com.smartcalendar.model.NotificationPayload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface NotificationPayloadRepository extends JpaRepository<NotificationPayload, Long> {
+    @Modifying
+    @Query("DELETE FROM NotificationPayload p WHERE p.id IN :ids " +
+            "AND NOT EXISTS (SELECT n.id FROM OutboxNotification n WHERE n.payload = p) " +
+            "AND NOT EXISTS (SELECT j.id FROM FanoutJob j WHERE j.payload = p)")
+    int deleteUnreferenced(Collection<Long> ids);
+}
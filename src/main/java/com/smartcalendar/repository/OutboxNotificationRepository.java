@@ -0,0 +1,60 @@
+package com.smartcalendar.repository;
+
+import com.smartcalendar.model.NotificationPayload;
+import com.smartcalendar.model.OutboxNotification;
+import com.smartcalendar.model.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxNotificationRepository extends JpaRepository<OutboxNotification, Long> {
+    @Query("SELECT n FROM OutboxNotification n JOIN FETCH n.payload WHERE n.status IN :statuses AND n.nextAttemptAt <= :now ORDER BY n.nextAttemptAt")
+    List<OutboxNotification> findDue(Collection<OutboxStatus> statuses, LocalDateTime now, Pageable pageable);
+
+    // Conditional update, so only one worker (or instance) wins a row; PROCESSING rows whose lease ran out are reclaimed
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxNotification n SET n.status = com.smartcalendar.model.OutboxStatus.PROCESSING, " +
+            "n.attempts = n.attempts + 1, n.nextAttemptAt = :leaseUntil " +
+            "WHERE n.id = :id AND n.status IN :statuses AND n.nextAttemptAt <= :now")
+    int claim(Long id, Collection<OutboxStatus> statuses, LocalDateTime now, LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxNotification n SET n.status = :status, n.nextAttemptAt = :nextAttemptAt, n.lastError = :lastError " +
+            "WHERE n.id = :id")
+    int updateStatus(Long id, OutboxStatus status, LocalDateTime nextAttemptAt, String lastError);
+
+    @Query("SELECT DISTINCT n.payload.id FROM OutboxNotification n " +
+            "WHERE n.coalesceKey IN :coalesceKeys AND n.status = com.smartcalendar.model.OutboxStatus.PENDING")
+    List<Long> findPendingPayloadIds(Collection<String> coalesceKeys);
+
+    // Moves still-pending rows onto the latest payload; rows first queued before maxDelayCutoff keep their send time
+    @Modifying
+    @Query("UPDATE OutboxNotification n SET n.payload = :payload, n.nextAttemptAt = " +
+            "CASE WHEN n.createdAt >= :maxDelayCutoff THEN :sendAt ELSE n.nextAttemptAt END " +
+            "WHERE n.coalesceKey IN :coalesceKeys AND n.status = com.smartcalendar.model.OutboxStatus.PENDING")
+    int coalesce(Collection<String> coalesceKeys, NotificationPayload payload, LocalDateTime sendAt,
+                 LocalDateTime maxDelayCutoff);
+
+    @Query("SELECT n.coalesceKey FROM OutboxNotification n WHERE n.payload = :payload AND n.coalesceKey IN :coalesceKeys")
+    List<String> findCoalesceKeysByPayload(NotificationPayload payload, Collection<String> coalesceKeys);
+
+    // SENT and DEAD rows keep the time they finished in nextAttemptAt
+    @Query("SELECT DISTINCT n.payload.id FROM OutboxNotification n " +
+            "WHERE n.status IN :statuses AND n.nextAttemptAt < :cutoff")
+    List<Long> findPayloadIdsFinishedBefore(Collection<OutboxStatus> statuses, LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxNotification n WHERE n.status IN :statuses AND n.nextAttemptAt < :cutoff")
+    int deleteFinishedBefore(Collection<OutboxStatus> statuses, LocalDateTime cutoff);
+}
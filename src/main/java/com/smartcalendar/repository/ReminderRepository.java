@@ -0,0 +1,35 @@
+package com.smartcalendar.repository;
+
+import com.smartcalendar.model.Reminder;
+import com.smartcalendar.model.ReminderTargetType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReminderRepository extends JpaRepository<Reminder, Long> {
+    List<Reminder> findByUserIdOrderByFireAtAsc(Long userId);
+
+    List<Reminder> findByTargetTypeAndTargetId(ReminderTargetType targetType, UUID targetId);
+
+    // Keyset page over [from, until) ordered by (fire_at, id); served by idx_reminders_fire_at
+    @Query("SELECT r FROM Reminder r WHERE r.fireAt >= :from AND r.fireAt < :until " +
+            "AND (r.fireAt > :afterFireAt OR (r.fireAt = :afterFireAt AND r.id > :afterId)) " +
+            "ORDER BY r.fireAt, r.id")
+    List<Reminder> findWindow(LocalDateTime from, LocalDateTime until, LocalDateTime afterFireAt, Long afterId,
+                              Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Reminder r WHERE r.targetType = :targetType AND r.targetId = :targetId")
+    int deleteByTarget(ReminderTargetType targetType, UUID targetId);
+
+    @Modifying
+    @Query("DELETE FROM Reminder r WHERE r.fireAt < :before")
+    int deleteByFireAtBefore(LocalDateTime before);
+}
@@ -1,13 +1,21 @@
 package com.smartcalendar.repository;
 
 import com.smartcalendar.model.Task;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, UUID> {
     List<Task> findByUserId(Long userId);
+    List<Task> findByUserIdOrderByCreationTimeAscIdAsc(Long userId, Pageable pageable);
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId " +
+            "AND (t.creationTime > :afterTime OR (t.creationTime = :afterTime AND t.id > :afterId)) " +
+            "ORDER BY t.creationTime, t.id")
+    List<Task> findPageByUserIdAfter(Long userId, LocalDateTime afterTime, UUID afterId, Pageable pageable);
 }
\ No newline at end of file
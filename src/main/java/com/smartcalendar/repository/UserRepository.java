@@ -2,12 +2,24 @@ package com.smartcalendar.repository;
 
 import com.smartcalendar.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+    List<User> findByEmailIn(Collection<String> emails);
+    List<User> findByUsernameInOrEmailIn(Collection<String> usernames, Collection<String> emails);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.deviceToken = null WHERE u.deviceToken = :deviceToken")
+    int clearDeviceToken(String deviceToken);
 
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
@@ -1,12 +1,25 @@
 package com.smartcalendar.service;
 
+import com.smartcalendar.exceptions.PayloadTooLargeException;
+import com.smartcalendar.exceptions.UpstreamUnavailableException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class AudioProcessingService {
@@ -17,26 +30,78 @@ public class AudioProcessingService {
     @Value("${chatgpt.api.key}")
     private String apiKey;
 
-    private final WebClient webClient = WebClient.builder().build();
+    @Value("${app.audio.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${app.audio.whisper-max-bytes:26214400}")
+    private long whisperMaxBytes;
+
+    private final WebClient webClient;
+
+    private final LlmGuard llmGuard;
+
+    private final AudioSegmenter audioSegmenter;
+
+    public AudioProcessingService(WebClient webClient, LlmGuard llmGuard, AudioSegmenter audioSegmenter) {
+        this.webClient = webClient;
+        this.llmGuard = llmGuard;
+        this.audioSegmenter = audioSegmenter;
+    }
 
     public String transcribeAudio(MultipartFile file) {
+        Path workDir = null;
         try {
-            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-            body.add("file", file.getResource());
-            body.add("model", "whisper-1");
-
-            String response = webClient.post()
-                    .uri(whisperApiUrl)
-                    .header("Authorization", "Bearer " + apiKey)
-                    .contentType(MediaType.MULTIPART_FORM_DATA)
-                    .bodyValue(body)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+            workDir = Files.createTempDirectory("transcription-");
+            String extension = StringUtils.getFilenameExtension(file.getOriginalFilename());
+            Path upload = workDir.resolve(extension != null ? "upload." + extension : "upload");
+            file.transferTo(upload);
 
-            return response;
+            List<Path> segments = audioSegmenter.split(upload, workDir);
+            // Formats the segmenter cannot split arrive whole; Whisper would reject them only after the full upload
+            for (Path segment : segments) {
+                if (Files.size(segment) > whisperMaxBytes) {
+                    throw new PayloadTooLargeException("Audio is larger than " + whisperMaxBytes / (1024 * 1024)
+                            + "MB and cannot be split; upload WAV, AIFF or AU, or a shorter recording");
+                }
+            }
+            return Flux.fromIterable(segments)
+                    .flatMapSequential(this::transcribeSegment, maxConcurrency)
+                    .map(String::strip)
+                    .filter(text -> !text.isEmpty())
+                    .collect(Collectors.joining(" "))
+                    .block();
+        } catch (UpstreamUnavailableException | PayloadTooLargeException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to transcribe audio: " + e.getMessage());
+        } finally {
+            deleteQuietly(workDir);
+        }
+    }
+
+    private Mono<String> transcribeSegment(Path segment) {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new FileSystemResource(segment));
+        body.add("model", "whisper-1");
+        body.add("response_format", "text");
+
+        return llmGuard.protect(webClient.post()
+                        .uri(whisperApiUrl)
+                        .header("Authorization", "Bearer " + apiKey)
+                        .contentType(MediaType.MULTIPART_FORM_DATA)
+                        .bodyValue(body)
+                        .retrieve()
+                        .bodyToMono(String.class))
+                .defaultIfEmpty("");
+    }
+
+    private static void deleteQuietly(Path workDir) {
+        if (workDir == null) {
+            return;
+        }
+        try {
+            FileSystemUtils.deleteRecursively(workDir);
+        } catch (IOException ignored) {
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+package com.smartcalendar.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits PCM audio (WAV, AIFF, AU) into segments of at most {@code max-segment}, cutting in the middle of the first
+ * silence after {@code min-segment}, or at the quietest point if there is none. Only one segment is held in memory.
+ * Formats the JDK cannot decode (mp3, m4a, ...) are returned whole.
+ */
+@Component
+public class AudioSegmenter {
+    private final Duration maxSegment;
+    private final Duration minSegment;
+    private final Duration window;
+    private final double silenceThreshold;
+
+    @Autowired
+    public AudioSegmenter(@Value("${app.audio.segment.max:PT60S}") Duration maxSegment,
+                          @Value("${app.audio.segment.min:PT20S}") Duration minSegment,
+                          @Value("${app.audio.segment.silence-window:PT0.05S}") Duration window,
+                          @Value("${app.audio.segment.silence-threshold:0.02}") double silenceThreshold) {
+        this.maxSegment = maxSegment;
+        this.minSegment = minSegment;
+        this.window = window;
+        this.silenceThreshold = silenceThreshold;
+    }
+
+    public List<Path> split(Path source, Path targetDir) throws IOException {
+        AudioInputStream in;
+        try {
+            in = AudioSystem.getAudioInputStream(source.toFile());
+        } catch (UnsupportedAudioFileException e) {
+            return List.of(source);
+        }
+        try (in) {
+            AudioFormat format = in.getFormat();
+            if (!isAnalyzable(format)) {
+                return List.of(source);
+            }
+            int frameSize = format.getFrameSize();
+            long maxFrames = frames(format, maxSegment);
+            if (in.getFrameLength() != AudioSystem.NOT_SPECIFIED && in.getFrameLength() <= maxFrames) {
+                return List.of(source);
+            }
+            int minFrames = (int) Math.min(frames(format, minSegment), maxFrames - 1);
+            int windowFrames = (int) Math.max(1, frames(format, window));
+
+            byte[] buffer = new byte[Math.toIntExact(maxFrames * frameSize)];
+            int length = 0;
+            List<Path> segments = new ArrayList<>();
+            while (true) {
+                int read = in.readNBytes(buffer, length, buffer.length - length);
+                length += read;
+                if (length < buffer.length) {
+                    if (length > 0) {
+                        segments.add(write(buffer, length, format, targetDir, segments.size()));
+                    }
+                    return segments;
+                }
+                int cut = findCut(buffer, length / frameSize, format, minFrames, windowFrames) * frameSize;
+                segments.add(write(buffer, cut, format, targetDir, segments.size()));
+                System.arraycopy(buffer, cut, buffer, 0, length - cut);
+                length -= cut;
+            }
+        }
+    }
+
+    private static boolean isAnalyzable(AudioFormat format) {
+        boolean pcm = format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED
+                || format.getEncoding() == AudioFormat.Encoding.PCM_UNSIGNED;
+        return pcm && (format.getSampleSizeInBits() == 8 || format.getSampleSizeInBits() == 16);
+    }
+
+    private static long frames(AudioFormat format, Duration duration) {
+        return (long) (format.getFrameRate() * duration.toMillis() / 1000.0);
+    }
+
+    // Returns the frame to cut at: middle of the first silent run after minFrames, else middle of the quietest window
+    int findCut(byte[] buffer, int totalFrames, AudioFormat format, int minFrames, int windowFrames) {
+        int quietest = minFrames;
+        double quietestLevel = Double.MAX_VALUE;
+        int silenceStart = -1;
+        for (int start = minFrames; start + windowFrames <= totalFrames; start += windowFrames) {
+            double level = rms(buffer, start, windowFrames, format);
+            if (level < silenceThreshold) {
+                if (silenceStart < 0) {
+                    silenceStart = start;
+                }
+            } else if (silenceStart >= 0) {
+                return (silenceStart + start) / 2;
+            }
+            if (level <= quietestLevel) {
+                quietestLevel = level;
+                quietest = start;
+            }
+        }
+        if (silenceStart >= 0) {
+            return (silenceStart + totalFrames) / 2;
+        }
+        return Math.min(quietest + windowFrames / 2, totalFrames);
+    }
+
+    // Root mean square of all channels in the window, scaled to 0..1
+    private static double rms(byte[] buffer, int startFrame, int frames, AudioFormat format) {
+        int bytesPerSample = format.getSampleSizeInBits() / 8;
+        int offset = startFrame * format.getFrameSize();
+        int samples = frames * format.getChannels();
+        boolean signed = format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED;
+        double sum = 0;
+        for (int i = 0; i < samples; i++) {
+            int position = offset + i * bytesPerSample;
+            double sample;
+            if (bytesPerSample == 1) {
+                int value = signed ? buffer[position] : (buffer[position] & 0xff) - 128;
+                sample = value / 128.0;
+            } else {
+                int high = format.isBigEndian() ? buffer[position] : buffer[position + 1];
+                int low = format.isBigEndian() ? buffer[position + 1] & 0xff : buffer[position] & 0xff;
+                int value = signed ? (high << 8) | low : (((high & 0xff) << 8) | low) - 32768;
+                sample = value / 32768.0;
+            }
+            sum += sample * sample;
+        }
+        return Math.sqrt(sum / samples);
+    }
+
+    private static Path write(byte[] buffer, int length, AudioFormat format, Path targetDir, int index)
+            throws IOException {
+        Path target = targetDir.resolve(String.format("segment-%04d.wav", index));
+        try (AudioInputStream segment = new AudioInputStream(
+                new ByteArrayInputStream(buffer, 0, length), format, length / format.getFrameSize())) {
+            AudioSystem.write(segment, AudioFileFormat.Type.WAVE, target.toFile());
+        }
+        return target;
+    }
+}
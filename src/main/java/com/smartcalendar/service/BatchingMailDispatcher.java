@@ -0,0 +1,143 @@
+package com.smartcalendar.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+@Component
+public class BatchingMailDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(BatchingMailDispatcher.class);
+
+    private final JavaMailSender mailSender;
+    private final BlockingQueue<PendingMail> queue;
+    private final ExecutorService senders;
+    private final Semaphore connections;
+    private final Duration window;
+    private final int maxBatchSize;
+    private volatile boolean running;
+    private Thread collector;
+
+    private record PendingMail(SimpleMailMessage message, CompletableFuture<Void> result) {
+    }
+
+    public BatchingMailDispatcher(JavaMailSender mailSender,
+                                  @Value("${app.mail.batch.window:PT0.2S}") Duration window,
+                                  @Value("${app.mail.batch.max-size:50}") int maxBatchSize,
+                                  @Value("${app.mail.batch.max-connections:4}") int maxConnections,
+                                  @Value("${app.mail.batch.queue-capacity:10000}") int queueCapacity) {
+        this.mailSender = mailSender;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.connections = new Semaphore(maxConnections);
+        this.senders = Executors.newFixedThreadPool(maxConnections, new CustomizableThreadFactory("mail-sender-"));
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        collector = new Thread(this::collect, "mail-batch-collector");
+        collector.setDaemon(true);
+        collector.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (collector != null) {
+            collector.join(window.toMillis() + 1000);
+        }
+        senders.shutdown();
+        senders.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    public CompletableFuture<Void> send(SimpleMailMessage message) {
+        PendingMail pending = new PendingMail(message, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            pending.result().completeExceptionally(new MailSendException("Mail queue is not accepting messages"));
+        }
+        return pending.result();
+    }
+
+    private void collect() {
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMail first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingMail> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + window.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    PendingMail next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                connections.acquire();
+                try {
+                    senders.execute(() -> {
+                        try {
+                            sendBatch(batch);
+                        } finally {
+                            connections.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    connections.release();
+                    batch.forEach(pending -> pending.result().completeExceptionally(e));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void sendBatch(List<PendingMail> batch) {
+        SimpleMailMessage[] messages = batch.stream()
+                .map(PendingMail::message)
+                .toArray(SimpleMailMessage[]::new);
+        try {
+            mailSender.send(messages);
+            batch.forEach(pending -> pending.result().complete(null));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = new IdentityHashMap<>(e.getFailedMessages());
+            if (failed.isEmpty()) {
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+                return;
+            }
+            logger.warn("{} of {} messages in a mail batch failed", failed.size(), batch.size());
+            for (PendingMail pending : batch) {
+                Exception error = failed.get(pending.message());
+                if (error != null) {
+                    pending.result().completeExceptionally(error);
+                } else {
+                    pending.result().complete(null);
+                }
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+}
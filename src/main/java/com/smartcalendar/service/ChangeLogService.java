@@ -0,0 +1,175 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.model.*;
+import com.smartcalendar.repository.ChangeLogClockRepository;
+import com.smartcalendar.repository.ChangeLogRepository;
+import com.smartcalendar.repository.EventRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Records what changed for {@code /changes} and the calendar ETag. Changes are collected per transaction and written
+ * once, just before commit: the clock row is locked, each entry gets the next version, and the entries go out in
+ * JDBC batches. Event edits are logged once per event and reach participants when the log is read; only deleting
+ * an event or removing someone from it writes entries per user, since the event no longer tells who saw it.
+ * Entries older than {@code retention} are purged; tokens from before the purge get a full resync.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChangeLogService {
+    private final ChangeLogRepository changeLogRepository;
+    private final ChangeLogClockRepository clockRepository;
+    private final EventRepository eventRepository;
+
+    @Value("${app.sync.change-log.retention:P30D}")
+    private Duration retention;
+
+    @PostConstruct
+    public void initClock() {
+        if (clockRepository.existsById(ChangeLogClock.ID)) {
+            return;
+        }
+        try {
+            clockRepository.saveAndFlush(new ChangeLogClock());
+        } catch (DataIntegrityViolationException ignored) {
+            // Another instance created it first
+        }
+    }
+
+    @Transactional
+    public void recordTask(Task task, ChangeOperation operation) {
+        if (task.getUser() == null || task.getUser().getId() == null) {
+            return;
+        }
+        pending().add(task.getUser().getId(), ChangeEntityType.TASK, task.getId(), operation);
+    }
+
+    @Transactional
+    public void recordEvent(Event event, ChangeOperation operation) {
+        if (operation == ChangeOperation.DELETE) {
+            recordEvent(event, operation, audienceOf(event));
+        } else {
+            pending().add(null, ChangeEntityType.EVENT, event.getId(), operation);
+        }
+    }
+
+    @Transactional
+    public void recordEvent(Event event, ChangeOperation operation, Collection<Long> userIds) {
+        PendingChanges pending = pending();
+        userIds.forEach(userId -> pending.add(userId, ChangeEntityType.EVENT, event.getId(), operation));
+    }
+
+    @Transactional
+    public void recordStatistics(Long userId) {
+        pending().add(userId, ChangeEntityType.STATISTICS, null, ChangeOperation.UPSERT);
+    }
+
+    public List<ChangeLogEntry> findSince(Long userId, long afterVersion, int limit) {
+        PageRequest page = PageRequest.ofSize(limit);
+        List<ChangeLogEntry> entries = new ArrayList<>(
+                changeLogRepository.findByUserIdAndVersionGreaterThanOrderByVersionAsc(userId, afterVersion, page));
+        entries.addAll(changeLogRepository.findEventScopedSince(userId, afterVersion, page));
+        entries.sort(Comparator.comparingLong(ChangeLogEntry::getVersion));
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    /**
+     * Token for a full snapshot: every entry up to it has committed, so it must be read before the snapshot is.
+     */
+    public long currentToken() {
+        return clockRepository.findVersion(ChangeLogClock.ID).orElse(0L);
+    }
+
+    public long purgedThrough() {
+        return clockRepository.findPurgedThrough(ChangeLogClock.ID).orElse(0L);
+    }
+
+    // Falls back to the purge point once all of a user's entries are gone, so the ETag never goes backwards
+    public long latestVersion(Long userId) {
+        return Math.max(purgedThrough(), Math.max(changeLogRepository.findLatestVersion(userId),
+                changeLogRepository.findLatestEventScopedVersion(userId)));
+    }
+
+    // The purge point is committed before any row goes, so a reader that missed rows always sees it moved
+    @Scheduled(fixedDelayString = "${app.sync.change-log.purge-interval:PT1H}")
+    public void purge() {
+        Long through = changeLogRepository.findLastVersionBefore(LocalDateTime.now().minus(retention));
+        if (through == null) {
+            return;
+        }
+        clockRepository.advancePurgedThrough(ChangeLogClock.ID, through);
+        changeLogRepository.deleteThroughVersion(through);
+    }
+
+    private PendingChanges pending() {
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private Set<Long> audienceOf(Event event) {
+        Set<Long> userIds = new TreeSet<>();
+        if (event.getOrganizer() != null && event.getOrganizer().getId() != null) {
+            userIds.add(event.getOrganizer().getId());
+        }
+        if (event.getId() != null) {
+            userIds.addAll(eventRepository.findParticipantIds(event.getId()));
+        }
+        return userIds;
+    }
+
+    private record Key(Long userId, ChangeEntityType entityType, UUID entityId) {
+    }
+
+    private class PendingChanges implements TransactionSynchronization {
+        private final Map<Key, ChangeOperation> changes = new LinkedHashMap<>();
+
+        // The last change to an entity wins and moves to the end, so it also gets the highest version
+        void add(Long userId, ChangeEntityType entityType, UUID entityId, ChangeOperation operation) {
+            Key key = new Key(userId, entityType, entityId);
+            changes.remove(key);
+            changes.put(key, operation);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (changes.isEmpty()) {
+                return;
+            }
+            ChangeLogClock clock = clockRepository.findForUpdate(ChangeLogClock.ID)
+                    .orElseThrow(() -> new IllegalStateException("change_log_clock row is missing"));
+            long version = clock.getVersion();
+            List<ChangeLogEntry> entries = new ArrayList<>(changes.size());
+            for (Map.Entry<Key, ChangeOperation> change : changes.entrySet()) {
+                Key key = change.getKey();
+                ChangeLogEntry entry = new ChangeLogEntry(key.userId(), key.entityType(), key.entityId(), change.getValue());
+                entry.setVersion(++version);
+                entries.add(entry);
+            }
+            clock.setVersion(version);
+            changeLogRepository.saveAll(entries);
+            changes.clear();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLogService.this);
+        }
+    }
+}
@@ -4,25 +4,37 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.smartcalendar.exceptions.UpstreamUnavailableException;
 import com.smartcalendar.model.Event;
 import com.smartcalendar.model.EventType;
 import com.smartcalendar.model.Task;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 @Service
 public class ChatGPTService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatGPTService.class);
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SERVER_SENT_EVENTS =
+            new ParameterizedTypeReference<>() {};
+    private static final String STREAM_DONE = "[DONE]";
     private final ObjectMapper objectMapper;
 
     @Value("${chatgpt.api.url}")
@@ -31,14 +43,36 @@ public class ChatGPTService {
     @Value("${chatgpt.api.key}")
     private String apiKey;
 
-    private final WebClient webClient = WebClient.builder().build();
+    @Value("${chatgpt.api.timeout:PT60S}")
+    private Duration timeout = Duration.ofSeconds(60);
 
-    public ChatGPTService() {
+    private final WebClient webClient;
+
+    private final LlmResponseCache responseCache;
+
+    private final LlmGuard llmGuard;
+
+    private final LlmBudget llmBudget;
+
+    public ChatGPTService(LlmResponseCache responseCache, WebClient webClient, LlmGuard llmGuard, LlmBudget llmBudget) {
+        this.responseCache = responseCache;
+        this.webClient = webClient;
+        this.llmGuard = llmGuard;
+        this.llmBudget = llmBudget;
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
     }
 
     public String askChatGPT(String question, String model) {
+        return askChatGPTAsync(question, model).block();
+    }
+
+    /**
+     * Non-blocking variant: nothing waits on a thread while the model is answering, so callers can hold many
+     * requests open at once. Errors arrive as the same RuntimeException messages the blocking call throws.
+     * Tokens used are charged to the user in the subscriber context (see {@link LlmBudget#forUser}).
+     */
+    public Mono<String> askChatGPTAsync(String question, String model) {
         logger.info("Sending request to ChatGPT API with question: {}", question);
 
         Map<String, Object> requestBody = Map.of(
@@ -50,44 +84,157 @@ public class ChatGPTService {
                 "max_tokens", 300
         );
 
+        return Mono.deferContextual(context -> llmGuard.protect(webClient.post()
+                                .uri(apiUrl)
+                                .header("Authorization", "Bearer " + apiKey)
+                                .header("Content-Type", "application/json")
+                                .bodyValue(requestBody)
+                                .retrieve()
+                                .bodyToMono(String.class)
+                                .timeout(timeout))
+                        .map(response -> {
+                            JsonNode rootNode = readTree(response);
+                            String content = extractContent(rootNode);
+                            llmBudget.charge(context, rootNode.path("usage").path("total_tokens")
+                                    .asLong(estimateTokens(question, content.length())));
+                            return content;
+                        }))
+                .onErrorMap(this::toFailure);
+    }
+
+    /**
+     * Streams the completion as it is generated: asks upstream for {@code stream: true} and emits each content
+     * delta as soon as its server-sent event arrives, without buffering the whole answer.
+     */
+    public Flux<String> streamChatGPT(String question, String model) {
+        logger.info("Streaming request to ChatGPT API with question: {}", question);
+
+        Map<String, Object> requestBody = Map.of(
+                "model", model,
+                "messages", List.of(
+                        Map.of("role", "user", "content", question)
+                ),
+                "temperature", 0.7,
+                "max_tokens", 300,
+                "stream", true
+        );
+
+        // Streamed chunks carry no usage, so the charge is estimated from what was actually generated
+        return Flux.deferContextual(context -> {
+                    AtomicLong generated = new AtomicLong();
+                    return llmGuard.protect(webClient.post()
+                                    .uri(apiUrl)
+                                    .header("Authorization", "Bearer " + apiKey)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .accept(MediaType.TEXT_EVENT_STREAM)
+                                    .bodyValue(requestBody)
+                                    .retrieve()
+                                    .bodyToFlux(SERVER_SENT_EVENTS)
+                                    .timeout(timeout)
+                                    .mapNotNull(ServerSentEvent::data)
+                                    .takeWhile(data -> !STREAM_DONE.equals(data.strip()))
+                                    .mapNotNull(this::extractDelta))
+                            .doOnNext(token -> generated.addAndGet(token.length()))
+                            .doFinally(signal -> llmBudget.charge(context, estimateTokens(question, generated.get())));
+                })
+                .onErrorMap(this::toFailure);
+    }
+
+    private String extractDelta(String chunk) {
         try {
-            String response = webClient.post()
-                    .uri(apiUrl)
-                    .header("Authorization", "Bearer " + apiKey)
-                    .header("Content-Type", "application/json")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            JsonNode rootNode = objectMapper.readTree(response);
-            String content = rootNode
+            JsonNode content = objectMapper.readTree(chunk)
                     .path("choices")
-                    .get(0)
-                    .path("message")
-                    .path("content")
-                    .asText();
+                    .path(0)
+                    .path("delta")
+                    .path("content");
+            return content.isTextual() && !content.asText().isEmpty() ? content.asText() : null;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonNode readTree(String response) {
+        try {
+            return objectMapper.readTree(response);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-            logger.info("Extracted content: {}", content);
-            return content;
+    private String extractContent(JsonNode rootNode) {
+        String content = rootNode
+                .path("choices")
+                .get(0)
+                .path("message")
+                .path("content")
+                .asText();
 
-        } catch (WebClientResponseException e) {
-            if (e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
-                logger.error("Invalid API key: {}", e.getResponseBodyAsString());
+        logger.info("Extracted content: {}", content);
+        return content;
+    }
+
+    // Roughly four characters per token for English text
+    private static long estimateTokens(String prompt, long completionChars) {
+        return (prompt.length() + completionChars + 3) / 4;
+    }
+
+    private RuntimeException toFailure(Throwable e) {
+        if (e instanceof UpstreamUnavailableException unavailable) {
+            return unavailable;
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            if (responseException.getStatusCode() == HttpStatus.UNAUTHORIZED) {
+                logger.error("Invalid API key: {}", responseException.getResponseBodyAsString());
             } else {
-                logger.error("Error from ChatGPT API: {}", e.getResponseBodyAsString());
+                logger.error("Error from ChatGPT API: {}", responseException.getResponseBodyAsString());
             }
-            throw new RuntimeException("Failed to get response from ChatGPT: " + e.getMessage());
-        } catch (Exception e) {
-            logger.error("Unexpected error while communicating with ChatGPT API", e);
-            throw new RuntimeException("Unexpected error: " + e.getMessage());
+            return new RuntimeException("Failed to get response from ChatGPT: " + e.getMessage());
         }
+        logger.error("Unexpected error while communicating with ChatGPT API", e);
+        return new RuntimeException("Unexpected error: " + e.getMessage());
     }
 
     public Map<String, List<?>> generateEventsAndTasks(String userQuery) {
+        return cached(generationPrompt(userQuery), "gpt-3.5-turbo", this::parseEventsAndTasks);
+    }
+
+    public Mono<Map<String, List<?>>> generateEventsAndTasksAsync(String userQuery) {
+        return cachedAsync(generationPrompt(userQuery), "gpt-3.5-turbo", this::parseEventsAndTasks);
+    }
+
+    // Only answers that parse are cached. Cache hits and callers sharing an in-flight call each parse the text
+    // themselves, so no two callers ever hold the same mutable result
+    private <T> T cached(String prompt, String model, Function<String, T> parser) {
+        String key = LlmResponseCache.key(model, prompt);
+        String response = responseCache.get(key);
+        if (response == null) {
+            response = responseCache.loadBlocking(key, () -> askChatGPT(prompt, model));
+        }
+        return parseAndCache(key, response, parser);
+    }
+
+    private <T> Mono<T> cachedAsync(String prompt, String model, Function<String, T> parser) {
+        String key = LlmResponseCache.key(model, prompt);
+        String response = responseCache.get(key);
+        if (response != null) {
+            return Mono.fromCallable(() -> parser.apply(response));
+        }
+        // The shared call runs under the first caller's context, so only that caller is charged for its tokens
+        return Mono.deferContextual(context -> Mono.fromFuture(() -> responseCache.load(key,
+                        () -> askChatGPTAsync(prompt, model).contextWrite(context).toFuture())))
+                .map(content -> parseAndCache(key, content, parser));
+    }
+
+    private <T> T parseAndCache(String key, String response, Function<String, T> parser) {
+        T result = parser.apply(response);
+        responseCache.put(key, response);
+        return result;
+    }
+
+    private String generationPrompt(String userQuery) {
         logger.info("Generating events and tasks for query: {}", userQuery);
 
-        String prompt = "Based on the user's query: \"" + userQuery + "\", generate a list of events and tasks. " +
+        return "Based on the user's query: \"" + userQuery + "\", generate a list of events and tasks. " +
                 "If the user mentions a note, description, or additional information related to an event, include it in the 'description' field of the corresponding event, " +
                 "unless it is clearly a separate task. " +
                 "Respond strictly in JSON format with the following structure: " +
@@ -107,9 +254,9 @@ public class ChatGPTService {
                 "\"allDay\": false " +
                 "}] } " +
                 "Do not include any additional text or explanation.";
+    }
 
-        String response = askChatGPT(prompt, "gpt-3.5-turbo");
-
+    private Map<String, List<?>> parseEventsAndTasks(String response) {
         try {
             return objectMapper.readValue(response, new TypeReference<>() {});
         } catch (Exception e) {
@@ -145,7 +292,7 @@ public class ChatGPTService {
                     event.setCompleted(Boolean.parseBoolean(eventData.get("completed").toString()));
                 }
                 event.setShared(false);
-                event.setInvitees(new ArrayList<>());
+                event.setInvitations(new ArrayList<>());
                 event.setParticipants(new ArrayList<>());
                 entities.add(event);
             }
@@ -178,8 +325,16 @@ public class ChatGPTService {
     }
 
     public Map<String, Object> processTranscript(String transcript) {
+        return cached(transcriptPrompt(transcript), "gpt-3.5-turbo", this::parseTranscriptResult);
+    }
+
+    public Mono<Map<String, Object>> processTranscriptAsync(String transcript) {
+        return cachedAsync(transcriptPrompt(transcript), "gpt-3.5-turbo", this::parseTranscriptResult);
+    }
+
+    private String transcriptPrompt(String transcript) {
         String today = LocalDate.now().toString();
-        String prompt = "Today is " + today + ". Based on the following transcript: \"" + transcript + "\", determine if it is related to creating events or tasks. " +
+        return "Today is " + today + ". Based on the following transcript: \"" + transcript + "\", determine if it is related to creating events or tasks. " +
                 "If it is, generate a list of events and tasks strictly in JSON format with the following structure: " +
                 "{ \"events\": [{ " +
                 "\"title\": \"string\", " +
@@ -200,9 +355,9 @@ public class ChatGPTService {
                 "unless it is clearly a separate task. " +
                 "If the transcript is not related to events or tasks, respond with: { \"error\": \"Unrelated request\" }. " +
                 "Do not include any additional text or explanation.";
+    }
 
-        String response = askChatGPT(prompt, "gpt-3.5-turbo");
-
+    private Map<String, Object> parseTranscriptResult(String response) {
         try {
             Map<String, Object> result = objectMapper.readValue(response, new TypeReference<Map<String, Object>>() {});
             if (result.containsKey("error")) {
@@ -0,0 +1,54 @@
+package com.smartcalendar.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A text template with {@code {name}} placeholders, parsed once into literal and placeholder segments.
+ */
+public final class CompiledTemplate {
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private CompiledTemplate(String[] literals, String[] names) {
+        this.literals = literals;
+        this.names = names;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf('{', position);
+            int close = open < 0 ? -1 : source.indexOf('}', open);
+            if (close < 0) {
+                literals.add(source.substring(position));
+                break;
+            }
+            literals.add(source.substring(position, open));
+            names.add(source.substring(open + 1, close));
+            position = close + 1;
+        }
+        return new CompiledTemplate(literals.toArray(String[]::new), names.toArray(String[]::new));
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder out = new StringBuilder(literalLength + 32 * names.length);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            if (!values.containsKey(names[i])) {
+                throw new IllegalArgumentException("No value for template placeholder: " + names[i]);
+            }
+            out.append(values.get(names[i]));
+        }
+        return out.append(literals[names.length]).toString();
+    }
+}
@@ -0,0 +1,151 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.dto.EventRecipient;
+import com.smartcalendar.dto.FanoutProgress;
+import com.smartcalendar.model.Event;
+import com.smartcalendar.model.FanoutJob;
+import com.smartcalendar.model.InvitationStatus;
+import com.smartcalendar.model.NotificationPayload;
+import com.smartcalendar.model.OutboxNotification;
+import com.smartcalendar.repository.EventRepository;
+import com.smartcalendar.repository.FanoutJobRepository;
+import com.smartcalendar.repository.InvitationRepository;
+import com.smartcalendar.repository.NotificationPayloadRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Notifies everyone on an event without loading its participant and invitation collections: recipients are read
+ * from the join tables in keyset pages of {@code page-size}, so memory stays flat however large the event is.
+ */
+@Service
+@RequiredArgsConstructor
+public class EventFanoutService {
+    private final EventRepository eventRepository;
+    private final InvitationRepository invitationRepository;
+    private final FanoutJobRepository fanoutJobRepository;
+    private final NotificationPayloadRepository payloadRepository;
+    private final NotificationService notificationService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.notifications.fanout.inline-limit:500}")
+    private long inlineLimit;
+
+    @Value("${app.notifications.fanout.page-size:500}")
+    private int pageSize;
+
+    public long countRecipients(Event event) {
+        return eventRepository.countParticipantsExcluding(event.getId(), organizerId(event))
+                + invitationRepository.countByEventIdAndStatus(event.getId(), InvitationStatus.PENDING);
+    }
+
+    public boolean isLarge(Event event) {
+        return countRecipients(event) > inlineLimit;
+    }
+
+    /**
+     * Records a fan-out job for the background worker. Older unfinished jobs for the same scope are cancelled,
+     * since this job's notifications replace theirs anyway.
+     */
+    @Transactional
+    public FanoutJob schedule(Event event, RenderedNotification notification, String coalesceScope) {
+        fanoutJobRepository.requestCancel(coalesceScope);
+        NotificationPayload payload = notificationService.savePayload(notification);
+        return fanoutJobRepository.save(
+                new FanoutJob(event.getId(), organizerId(event), payload, coalesceScope, countRecipients(event)));
+    }
+
+    /**
+     * Fans out inside the caller's transaction, for notifications that must be queued before the event rows go
+     * away (deletion). Queued rows are flushed and detached page by page so the persistence context stays small.
+     */
+    @Transactional
+    public long fanOutNow(Event event, RenderedNotification notification, String coalesceScope) {
+        fanoutJobRepository.requestCancel(coalesceScope);
+        NotificationPayload payload = notificationService.savePayload(notification);
+        long queued = 0;
+        long participantCursor = 0;
+        long inviteeCursor = 0;
+        List<EventRecipient> page;
+        do {
+            page = participantPage(event.getId(), organizerId(event), participantCursor);
+            if (!page.isEmpty()) {
+                participantCursor = page.get(page.size() - 1).id();
+                queued += enqueueAndDetach(payload, page, coalesceScope);
+            }
+        } while (page.size() == pageSize);
+        do {
+            page = inviteePage(event.getId(), inviteeCursor);
+            if (!page.isEmpty()) {
+                inviteeCursor = page.get(page.size() - 1).id();
+                queued += enqueueAndDetach(payload, page, coalesceScope);
+            }
+        } while (page.size() == pageSize);
+        return queued;
+    }
+
+    private long enqueueAndDetach(NotificationPayload payload, List<EventRecipient> page, String coalesceScope) {
+        List<OutboxNotification> rows = enqueue(payload, page, coalesceScope);
+        entityManager.flush();
+        rows.forEach(entityManager::detach);
+        return page.size();
+    }
+
+    public List<OutboxNotification> enqueue(NotificationPayload payload, List<EventRecipient> page, String coalesceScope) {
+        List<String> emails = new ArrayList<>(page.size());
+        List<String> deviceTokens = new ArrayList<>();
+        for (EventRecipient recipient : page) {
+            emails.add(recipient.email());
+            if (recipient.deviceToken() != null) {
+                deviceTokens.add(recipient.deviceToken());
+            }
+        }
+        return notificationService.enqueue(payload, emails, deviceTokens, coalesceScope);
+    }
+
+    public List<EventRecipient> participantPage(UUID eventId, Long excludedUserId, long afterId) {
+        return eventRepository.findParticipantRecipients(eventId, excludedUserId, afterId, PageRequest.ofSize(pageSize));
+    }
+
+    public List<EventRecipient> inviteePage(UUID eventId, long afterId) {
+        return invitationRepository.findPendingInviteeRecipients(eventId, afterId, PageRequest.ofSize(pageSize));
+    }
+
+    public int pageSize() {
+        return pageSize;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<FanoutProgress> getProgress(UUID eventId) {
+        return fanoutJobRepository.findFirstByEventIdOrderByIdDesc(eventId).map(FanoutProgress::of);
+    }
+
+    @Transactional
+    public void purgeFinished(Duration retention) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        List<Long> payloadIds = fanoutJobRepository.findPayloadIdsFinishedBefore(cutoff);
+        if (payloadIds.isEmpty()) {
+            return;
+        }
+        fanoutJobRepository.deleteFinishedBefore(cutoff);
+        payloadRepository.deleteUnreferenced(payloadIds);
+    }
+
+    private static Long organizerId(Event event) {
+        return event.getOrganizer() != null ? event.getOrganizer().getId() : -1L;
+    }
+}
@@ -0,0 +1,174 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.dto.EventRecipient;
+import com.smartcalendar.model.FanoutJob;
+import com.smartcalendar.model.FanoutStatus;
+import com.smartcalendar.repository.FanoutJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs scheduled fan-out jobs in waves: up to {@code parallelism} recipient pages are read by keyset, each page is
+ * queued in its own transaction on a bounded pool, and the cursors are saved once the whole wave has committed.
+ * A crashed worker's job is picked up again after its lease expires and resumes from the last saved wave.
+ * Jobs run one at a time on their own thread, so the shared scheduler thread only polls and claims.
+ */
+@Component
+@ConditionalOnProperty(name = "app.notifications.fanout.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class EventFanoutWorker {
+    private static final Logger logger = LoggerFactory.getLogger(EventFanoutWorker.class);
+
+    private final FanoutJobRepository fanoutJobRepository;
+    private final EventFanoutService fanoutService;
+    private final Executor jobExecutor;
+    private final Executor executor;
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private final int parallelism;
+    private final Duration lease;
+    private final Duration retention;
+
+    @Autowired
+    public EventFanoutWorker(FanoutJobRepository fanoutJobRepository,
+                             EventFanoutService fanoutService,
+                             @Value("${app.notifications.fanout.parallelism:4}") int parallelism,
+                             @Value("${app.notifications.fanout.lease:PT2M}") Duration lease,
+                             @Value("${app.notifications.fanout.retention:P1D}") Duration retention) {
+        this(fanoutJobRepository, fanoutService,
+                Executors.newSingleThreadExecutor(new CustomizableThreadFactory("fanout-job-")),
+                new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(parallelism), new CustomizableThreadFactory("fanout-")),
+                parallelism, lease, retention);
+    }
+
+    EventFanoutWorker(FanoutJobRepository fanoutJobRepository,
+                      EventFanoutService fanoutService,
+                      Executor jobExecutor,
+                      Executor executor,
+                      int parallelism,
+                      Duration lease,
+                      Duration retention) {
+        this.fanoutJobRepository = fanoutJobRepository;
+        this.fanoutService = fanoutService;
+        this.jobExecutor = jobExecutor;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.lease = lease;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.fanout.poll-interval:PT1S}")
+    public void poll() {
+        // Claim only when the job thread is free, so a claimed job never sits in a queue while its lease runs out
+        if (!busy.compareAndSet(false, true)) {
+            return;
+        }
+        boolean submitted = false;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (FanoutJob job : fanoutJobRepository.findRunnable(now, PageRequest.ofSize(1))) {
+                if (fanoutJobRepository.claim(job.getId(), now, now.plus(lease)) == 1) {
+                    jobExecutor.execute(() -> {
+                        try {
+                            run(job);
+                        } finally {
+                            busy.set(false);
+                        }
+                    });
+                    submitted = true;
+                }
+            }
+        } finally {
+            if (!submitted) {
+                busy.set(false);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.fanout.purge-interval:PT1H}")
+    public void purge() {
+        fanoutService.purgeFinished(retention);
+    }
+
+    void run(FanoutJob job) {
+        long participantCursor = job.getParticipantCursor();
+        long inviteeCursor = job.getInviteeCursor();
+        long processed = job.getProcessed();
+        boolean participantsDone = false;
+        boolean inviteesDone = false;
+        int pageSize = fanoutService.pageSize();
+        try {
+            while (!(participantsDone && inviteesDone)) {
+                if (job.isCancelRequested() || fanoutJobRepository.isCancelRequested(job.getId())) {
+                    fanoutJobRepository.finish(job.getId(), FanoutStatus.CANCELLED, LocalDateTime.now());
+                    return;
+                }
+                List<List<EventRecipient>> wave = new ArrayList<>(parallelism);
+                while (wave.size() < parallelism && !participantsDone) {
+                    List<EventRecipient> page = fanoutService.participantPage(
+                            job.getEventId(), job.getExcludedUserId(), participantCursor);
+                    participantsDone = page.size() < pageSize;
+                    if (!page.isEmpty()) {
+                        participantCursor = page.get(page.size() - 1).id();
+                        wave.add(page);
+                    }
+                }
+                while (wave.size() < parallelism && participantsDone && !inviteesDone) {
+                    List<EventRecipient> page = fanoutService.inviteePage(job.getEventId(), inviteeCursor);
+                    inviteesDone = page.size() < pageSize;
+                    if (!page.isEmpty()) {
+                        inviteeCursor = page.get(page.size() - 1).id();
+                        wave.add(page);
+                    }
+                }
+                dispatch(job, wave);
+                for (List<EventRecipient> page : wave) {
+                    processed += page.size();
+                }
+                fanoutJobRepository.recordProgress(job.getId(), participantCursor, inviteeCursor, processed,
+                        LocalDateTime.now().plus(lease));
+            }
+            fanoutJobRepository.finish(job.getId(), FanoutStatus.DONE, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            // Leave the job RUNNING; it is retried from the last recorded wave once the lease runs out
+            logger.warn("Fan-out job {} for event {} failed: {}", job.getId(), job.getEventId(), e.getMessage());
+        }
+    }
+
+    private void dispatch(FanoutJob job, List<List<EventRecipient>> wave) {
+        List<CompletableFuture<Void>> chunks = new ArrayList<>(wave.size());
+        for (List<EventRecipient> page : wave) {
+            chunks.add(CompletableFuture.runAsync(
+                    () -> fanoutService.enqueue(job.getPayload(), page, job.getCoalesceScope()), executor));
+        }
+        try {
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (jobExecutor instanceof ExecutorService service) {
+            service.shutdown();
+        }
+        if (executor instanceof ExecutorService service) {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.smartcalendar.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.auth.oauth2.GoogleCredentials;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends through the Firebase Cloud Messaging HTTP v1 API, one request per token over the shared outbound pool.
+ * Unregistered tokens come back as {@code INVALID_TOKEN} and malformed tokens as {@code RETRY}; any other 400 is a
+ * bad message and comes back as {@code REJECTED}, which no token is charged for. Throttling, server errors and
+ * transport failures are {@code UNAVAILABLE} so that a provider outage never prunes anyone's device. Only active once a project id is set;
+ * otherwise {@link com.smartcalendar.config.PushGatewayConfig} falls back to logging.
+ */
+@Component
+@ConditionalOnExpression("'${app.push.gateway:}' == 'fcm' and !'${app.push.fcm.project-id:}'.isBlank()")
+public class FcmPushGateway implements PushGateway {
+    private static final String SCOPE = "https://www.googleapis.com/auth/firebase.messaging";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final WebClient webClient;
+    private final GoogleCredentials credentials;
+    private final String sendUrl;
+    private final Duration timeout;
+    private final int maxConcurrency;
+
+    @Autowired
+    public FcmPushGateway(WebClient webClient,
+                          @Value("${app.push.fcm.project-id}") String projectId,
+                          @Value("${app.push.fcm.credentials-file:}") String credentialsFile,
+                          @Value("${app.push.fcm.url:https://fcm.googleapis.com}") String baseUrl,
+                          @Value("${app.push.fcm.timeout:PT10S}") Duration timeout,
+                          @Value("${app.push.fcm.max-concurrency:20}") int maxConcurrency) throws IOException {
+        this(webClient, loadCredentials(credentialsFile), projectId, baseUrl, timeout, maxConcurrency);
+    }
+
+    FcmPushGateway(WebClient webClient, GoogleCredentials credentials, String projectId, String baseUrl,
+                   Duration timeout, int maxConcurrency) {
+        if (projectId == null || projectId.isBlank()) {
+            throw new IllegalStateException("app.push.fcm.project-id must be set");
+        }
+        this.webClient = webClient;
+        this.credentials = credentials;
+        this.sendUrl = baseUrl + "/v1/projects/" + projectId + "/messages:send";
+        this.timeout = timeout;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public List<Outcome> send(String title, String body, List<String> deviceTokens) {
+        String authorization = "Bearer " + accessToken();
+        return Flux.fromIterable(deviceTokens)
+                .flatMapSequential(token -> sendOne(authorization, token, title, body), maxConcurrency)
+                .collectList()
+                .block();
+    }
+
+    private Mono<Outcome> sendOne(String authorization, String token, String title, String body) {
+        Map<String, Object> message = Map.of("message", Map.of(
+                "token", token,
+                "notification", Map.of("title", title, "body", body)));
+        return webClient.post()
+                .uri(sendUrl)
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(message)
+                .exchangeToMono(response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(responseBody -> outcomeOf(response.statusCode(), responseBody)))
+                .timeout(timeout)
+                .onErrorReturn(Outcome.UNAVAILABLE);
+    }
+
+    static Outcome outcomeOf(HttpStatusCode status, String responseBody) {
+        if (status.is2xxSuccessful()) {
+            return Outcome.DELIVERED;
+        }
+        JsonNode error = errorOf(responseBody);
+        String errorCode = errorCodeOf(error);
+        if (status.value() == 404 || "UNREGISTERED".equals(errorCode) || "SENDER_ID_MISMATCH".equals(errorCode)) {
+            return Outcome.INVALID_TOKEN;
+        }
+        if (status.value() == 400) {
+            return isTokenError(error) ? Outcome.RETRY : Outcome.REJECTED;
+        }
+        return Outcome.UNAVAILABLE;
+    }
+
+    private static JsonNode errorOf(String responseBody) {
+        try {
+            return objectMapper.readTree(responseBody).path("error");
+        } catch (IOException e) {
+            return objectMapper.missingNode();
+        }
+    }
+
+    // FCM puts its own code in error.details[].errorCode next to the generic HTTP status name
+    private static String errorCodeOf(JsonNode error) {
+        for (JsonNode detail : error.path("details")) {
+            if (detail.hasNonNull("errorCode")) {
+                return detail.get("errorCode").asText();
+            }
+        }
+        return null;
+    }
+
+    // A malformed token is reported as a BadRequest field violation on message.token
+    private static boolean isTokenError(JsonNode error) {
+        for (JsonNode detail : error.path("details")) {
+            for (JsonNode violation : detail.path("fieldViolations")) {
+                if ("message.token".equals(violation.path("field").asText())) {
+                    return true;
+                }
+            }
+        }
+        return error.path("message").asText().contains("registration token");
+    }
+
+    private String accessToken() {
+        try {
+            credentials.refreshIfExpired();
+            return credentials.getAccessToken().getTokenValue();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to obtain an FCM access token", e);
+        }
+    }
+
+    private static GoogleCredentials loadCredentials(String credentialsFile) throws IOException {
+        if (credentialsFile == null || credentialsFile.isBlank()) {
+            return GoogleCredentials.getApplicationDefault().createScoped(SCOPE);
+        }
+        try (InputStream in = Files.newInputStream(Path.of(credentialsFile))) {
+            return GoogleCredentials.fromStream(in).createScoped(SCOPE);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.smartcalendar.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel with {@code levels} wheels of {@code wheelSize} slots. Level {@code i} slots span
+ * {@code tickMillis * wheelSize^i}; entries cascade down a level when their slot comes up. Scheduling is O(1)
+ * and advancing costs O(1) per tick plus the entries that fire or cascade.
+ *
+ * <p>Not thread-safe: a single ticker thread must own it.
+ */
+public final class HierarchicalTimingWheel<T> {
+    private record Entry<T>(long deadlineTick, T item) {
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] spans;
+    private final ArrayDeque<Entry<T>>[][] slots;
+    private final ArrayDeque<Entry<T>> due = new ArrayDeque<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levels + 1];
+        spans[0] = 1;
+        for (int i = 1; i <= levels; i++) {
+            spans[i] = Math.multiplyExact(spans[i - 1], wheelSize);
+        }
+        this.slots = new ArrayDeque[levels][wheelSize];
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Latest deadline, in epoch millis, that can be scheduled right now.
+     */
+    public long horizonMillis() {
+        return (currentTick + spans[spans.length - 1] - 1) * tickMillis;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules an item; deadlines already reached fire on the next advance.
+     *
+     * @return false if the deadline is beyond the horizon and the item was not scheduled
+     */
+    public boolean schedule(long deadlineMillis, T item) {
+        // Round up so items never fire before their deadline
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        if (deadlineTick - currentTick >= spans[spans.length - 1]) {
+            return false;
+        }
+        place(new Entry<>(deadlineTick, item));
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves time forward to {@code nowMillis} and returns every item whose deadline has passed.
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        drainDue(expired);
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = slots.length - 1; level >= 1; level--) {
+                if (currentTick % spans[level] == 0) {
+                    ArrayDeque<Entry<T>> slot = takeSlot(level, currentTick / spans[level]);
+                    if (slot != null) {
+                        slot.forEach(this::place);
+                    }
+                }
+            }
+            ArrayDeque<Entry<T>> slot = takeSlot(0, currentTick);
+            if (slot != null) {
+                slot.forEach(entry -> expired.add(entry.item()));
+                size -= slot.size();
+            }
+            drainDue(expired);
+        }
+        return expired;
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.deadlineTick() - currentTick;
+        if (delta <= 0) {
+            due.add(entry);
+            return;
+        }
+        int level = 0;
+        while (delta >= spans[level + 1]) {
+            level++;
+        }
+        int index = (int) ((entry.deadlineTick() / spans[level]) % wheelSize);
+        ArrayDeque<Entry<T>> slot = slots[level][index];
+        if (slot == null) {
+            slot = new ArrayDeque<>();
+            slots[level][index] = slot;
+        }
+        slot.add(entry);
+    }
+
+    private ArrayDeque<Entry<T>> takeSlot(int level, long position) {
+        int index = (int) (position % wheelSize);
+        ArrayDeque<Entry<T>> slot = slots[level][index];
+        slots[level][index] = null;
+        return slot;
+    }
+
+    private void drainDue(List<T> expired) {
+        size -= due.size();
+        while (!due.isEmpty()) {
+            expired.add(due.poll().item());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.smartcalendar.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartcalendar.exceptions.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user request rate and token budget for LLM calls, in fixed windows. Counters are swapped with CAS on
+ * immutable windows, so concurrent requests from one user never take a lock. Tokens are charged after the
+ * upstream call from its reported usage, so a cached answer costs a request but no tokens.
+ */
+@Component
+public class LlmBudget {
+    private static final String USER_KEY = LlmBudget.class.getName() + ".user";
+
+    private record Window(long startMillis, long used) {
+    }
+
+    private static final class UserBudget {
+        final AtomicReference<Window> requests = new AtomicReference<>(new Window(0, 0));
+        final AtomicReference<Window> tokens = new AtomicReference<>(new Window(0, 0));
+    }
+
+    private final Cache<String, UserBudget> budgets;
+    private final int maxRequests;
+    private final long requestWindowMillis;
+    private final long maxTokens;
+    private final long tokenWindowMillis;
+    private final LongSupplier clock;
+
+    @Autowired
+    public LlmBudget(@Value("${app.llm.budget.max-requests:30}") int maxRequests,
+                     @Value("${app.llm.budget.request-window:PT1M}") Duration requestWindow,
+                     @Value("${app.llm.budget.max-tokens:50000}") long maxTokens,
+                     @Value("${app.llm.budget.token-window:P1D}") Duration tokenWindow) {
+        this(maxRequests, requestWindow, maxTokens, tokenWindow, System::currentTimeMillis);
+    }
+
+    LlmBudget(int maxRequests, Duration requestWindow, long maxTokens, Duration tokenWindow, LongSupplier clock) {
+        this.maxRequests = maxRequests;
+        this.requestWindowMillis = requestWindow.toMillis();
+        this.maxTokens = maxTokens;
+        this.tokenWindowMillis = tokenWindow.toMillis();
+        this.clock = clock;
+        this.budgets = Caffeine.newBuilder()
+                .expireAfterAccess(requestWindow.compareTo(tokenWindow) > 0 ? requestWindow : tokenWindow)
+                .build();
+    }
+
+    public static Context forUser(String username) {
+        return Context.of(USER_KEY, username);
+    }
+
+    /**
+     * Counts one request against the user's rate and rejects it if that, or the user's token budget, is used up.
+     */
+    public void checkRequest(String username) {
+        UserBudget budget = budgets.get(username, key -> new UserBudget());
+        long now = clock.getAsLong();
+        Window requests = budget.requests.updateAndGet(window -> now - window.startMillis() >= requestWindowMillis
+                ? new Window(now, 1)
+                : new Window(window.startMillis(), window.used() + 1));
+        if (requests.used() > maxRequests) {
+            throw new TooManyRequestsException("Request limit of " + maxRequests + " reached, retry in "
+                    + retryAfterSeconds(requests, requestWindowMillis, now) + "s");
+        }
+        Window tokens = current(budget.tokens, now);
+        if (tokens.used() >= maxTokens) {
+            throw new TooManyRequestsException("Token budget of " + maxTokens + " used up, retry in "
+                    + retryAfterSeconds(tokens, tokenWindowMillis, now) + "s");
+        }
+    }
+
+    public void charge(String username, long tokens) {
+        if (username == null || tokens <= 0) {
+            return;
+        }
+        UserBudget budget = budgets.get(username, key -> new UserBudget());
+        long now = clock.getAsLong();
+        budget.tokens.updateAndGet(window -> now - window.startMillis() >= tokenWindowMillis
+                ? new Window(now, tokens)
+                : new Window(window.startMillis(), window.used() + tokens));
+    }
+
+    public void charge(ContextView context, long tokens) {
+        charge(context.<String>getOrEmpty(USER_KEY).orElse(null), tokens);
+    }
+
+    public long remainingTokens(String username) {
+        UserBudget budget = budgets.getIfPresent(username);
+        if (budget == null) {
+            return maxTokens;
+        }
+        return Math.max(0, maxTokens - current(budget.tokens, clock.getAsLong()).used());
+    }
+
+    private Window current(AtomicReference<Window> counter, long now) {
+        return counter.updateAndGet(window -> now - window.startMillis() >= tokenWindowMillis
+                ? new Window(now, 0)
+                : window);
+    }
+
+    private static long retryAfterSeconds(Window window, long windowMillis, long now) {
+        return Math.max(1, (window.startMillis() + windowMillis - now + 999) / 1000);
+    }
+}
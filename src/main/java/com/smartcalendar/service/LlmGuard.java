@@ -0,0 +1,103 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.exceptions.UpstreamUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and bulkhead around every OpenAI call. While the breaker is open, or all {@code max-concurrent}
+ * slots are taken, calls fail at once with {@link UpstreamUnavailableException} instead of waiting on a dead
+ * upstream. Client errors (4xx other than 429) are the caller's fault and do not count against the breaker.
+ * State and call counts are published as {@code resilience4j.circuitbreaker.*} and {@code resilience4j.bulkhead.*}.
+ */
+@Component
+public class LlmGuard implements MeterBinder {
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public LlmGuard(@Value("${app.llm.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                    @Value("${app.llm.circuit-breaker.slow-call-duration:PT30S}") Duration slowCallDuration,
+                    @Value("${app.llm.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+                    @Value("${app.llm.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                    @Value("${app.llm.circuit-breaker.open-duration:PT30S}") Duration openDuration,
+                    @Value("${app.llm.bulkhead.max-concurrent:20}") int maxConcurrent) {
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(100)
+                .slowCallDurationThreshold(slowCallDuration)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(LlmGuard::isUpstreamFailure)
+                .build());
+        this.bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrent)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker("openai");
+        this.bulkhead = bulkheads.bulkhead("openai");
+    }
+
+    private static boolean isUpstreamFailure(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return true;
+    }
+
+    // The bulkhead sits outside the breaker, so calls turned away for lack of a slot do not trip it
+    public <T> Mono<T> protect(Mono<T> call) {
+        return call.transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorMap(LlmGuard::isRejection, LlmGuard::unavailable);
+    }
+
+    public <T> Flux<T> protect(Flux<T> call) {
+        return call.transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorMap(LlmGuard::isRejection, LlmGuard::unavailable);
+    }
+
+    private static boolean isRejection(Throwable e) {
+        return e instanceof CallNotPermittedException || e instanceof BulkheadFullException;
+    }
+
+    private static UpstreamUnavailableException unavailable(Throwable e) {
+        return new UpstreamUnavailableException(e instanceof BulkheadFullException
+                ? "Too many concurrent OpenAI requests, try again shortly"
+                : "OpenAI is unavailable, try again later");
+    }
+
+    public CircuitBreaker.State state() {
+        return circuitBreaker.getState();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(registry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(registry);
+    }
+}
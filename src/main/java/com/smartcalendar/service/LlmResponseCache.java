@@ -0,0 +1,83 @@
+package com.smartcalendar.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Completion text keyed by model and prompt with whitespace collapsed. Case is kept, since titles in the prompt are
+ * echoed back in the answer. Prompts that depend on the date carry it in the prompt itself, so yesterday's answers
+ * are never reused. Misses for the same key that overlap share one upstream call.
+ * Hits and misses are published as {@code cache.gets} with {@code cache=llm.responses}; upstream and collapsed
+ * calls as {@code llm.requests.upstream} and {@code llm.requests.collapsed}.
+ */
+@Component
+public class LlmResponseCache implements MeterBinder {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Cache<String, String> responses;
+    private final SingleFlight<String, String> inFlight = new SingleFlight<>();
+
+    public LlmResponseCache(@Value("${app.llm.cache.max-size:1000}") long maxSize,
+                            @Value("${app.llm.cache.ttl:PT1H}") Duration ttl) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public static String key(String model, String prompt) {
+        return model + '\n' + WHITESPACE.matcher(prompt.strip()).replaceAll(" ");
+    }
+
+    public String get(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    public void put(String key, String response) {
+        responses.put(key, response);
+    }
+
+    public CompletableFuture<String> load(String key, Supplier<? extends CompletionStage<String>> call) {
+        return inFlight.execute(key, call);
+    }
+
+    public String loadBlocking(String key, Supplier<String> call) {
+        return inFlight.executeBlocking(key, call);
+    }
+
+    public long collapsedCount() {
+        return inFlight.collapsedCount();
+    }
+
+    public CacheStats stats() {
+        return responses.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, responses, "llm.responses");
+        FunctionCounter.builder("llm.requests.upstream", inFlight, SingleFlight::executedCount)
+                .description("LLM completions sent upstream after a cache miss")
+                .register(registry);
+        FunctionCounter.builder("llm.requests.collapsed", inFlight, SingleFlight::collapsedCount)
+                .description("LLM cache misses served by an identical call already in flight")
+                .register(registry);
+        Gauge.builder("llm.requests.in.flight", inFlight, SingleFlight::inFlightCount)
+                .register(registry);
+    }
+}
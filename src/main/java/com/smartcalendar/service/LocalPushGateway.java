@@ -0,0 +1,57 @@
+package com.smartcalendar.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for a push provider: waits a fixed latency per batch and accepts every token
+ * except those starting with {@code invalid}, which it reports as unregistered. Only available to the test and
+ * h2 profiles; anywhere else push goes through FCM or is only logged.
+ */
+@Component
+@Profile({"test", "h2"})
+@ConditionalOnProperty(name = "app.push.gateway", havingValue = "local")
+public class LocalPushGateway implements PushGateway {
+    private final Duration latency;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+
+    public LocalPushGateway(@Value("${app.push.local.latency:PT0.02S}") Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public List<Outcome> send(String title, String body, List<String> deviceTokens) {
+        batches.incrementAndGet();
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Outcome> outcomes = new ArrayList<>(deviceTokens.size());
+        for (String token : deviceTokens) {
+            if (token.startsWith("invalid")) {
+                outcomes.add(Outcome.INVALID_TOKEN);
+            } else {
+                delivered.incrementAndGet();
+                outcomes.add(Outcome.DELIVERED);
+            }
+        }
+        return outcomes;
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+}
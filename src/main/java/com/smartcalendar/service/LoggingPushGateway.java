@@ -0,0 +1,21 @@
+package com.smartcalendar.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Used when no push provider is configured: logs each batch and reports it as delivered, so the outbox
+ * neither retries nor prunes anything while push is switched off.
+ */
+public class LoggingPushGateway implements PushGateway {
+    private static final Logger logger = LoggerFactory.getLogger(LoggingPushGateway.class);
+
+    @Override
+    public List<Outcome> send(String title, String body, List<String> deviceTokens) {
+        logger.info("Push is not configured; skipping \"{}\" for {} device(s)", title, deviceTokens.size());
+        return Collections.nCopies(deviceTokens.size(), Outcome.DELIVERED);
+    }
+}
@@ -0,0 +1,159 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.model.OutboxNotification;
+import com.smartcalendar.model.OutboxStatus;
+import com.smartcalendar.repository.OutboxNotificationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.*;
+
+@Component
+@ConditionalOnProperty(name = "app.notifications.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxDispatcher.class);
+    private static final List<OutboxStatus> CLAIMABLE = List.of(OutboxStatus.PENDING, OutboxStatus.PROCESSING);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxNotificationRepository outboxRepository;
+    private final NotificationService notificationService;
+    private final Executor executor;
+    private final Semaphore inFlight;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Duration retention;
+
+    @Autowired
+    public NotificationOutboxDispatcher(OutboxNotificationRepository outboxRepository,
+                                        NotificationService notificationService,
+                                        @Value("${app.notifications.outbox.workers:4}") int workers,
+                                        @Value("${app.notifications.outbox.max-in-flight:50}") int maxInFlight,
+                                        @Value("${app.notifications.outbox.max-attempts:8}") int maxAttempts,
+                                        @Value("${app.notifications.outbox.initial-backoff:PT10S}") Duration initialBackoff,
+                                        @Value("${app.notifications.outbox.max-backoff:PT1H}") Duration maxBackoff,
+                                        @Value("${app.notifications.outbox.lease:PT5M}") Duration lease,
+                                        @Value("${app.notifications.outbox.retention:P7D}") Duration retention) {
+        this(outboxRepository, notificationService,
+                new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(maxInFlight), new CustomizableThreadFactory("notification-")),
+                maxInFlight, maxAttempts, initialBackoff, maxBackoff, lease, retention);
+    }
+
+    NotificationOutboxDispatcher(OutboxNotificationRepository outboxRepository,
+                                 NotificationService notificationService,
+                                 Executor executor,
+                                 int maxInFlight,
+                                 int maxAttempts,
+                                 Duration initialBackoff,
+                                 Duration maxBackoff,
+                                 Duration lease,
+                                 Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.notificationService = notificationService;
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.outbox.poll-interval:PT1S}")
+    public void poll() {
+        int capacity = inFlight.availablePermits();
+        if (capacity == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxNotification notification : outboxRepository.findDue(CLAIMABLE, now, PageRequest.ofSize(capacity))) {
+            if (!inFlight.tryAcquire()) {
+                return;
+            }
+            if (outboxRepository.claim(notification.getId(), CLAIMABLE, now, now.plus(lease)) == 0) {
+                inFlight.release();
+                continue;
+            }
+            try {
+                executor.execute(() -> deliver(notification).whenComplete((ignored, error) -> inFlight.release()));
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                outboxRepository.updateStatus(notification.getId(), OutboxStatus.PENDING, now, null);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.outbox.purge-interval:PT1H}")
+    public void purge() {
+        notificationService.purgeFinished(retention);
+    }
+
+    CompletableFuture<Void> deliver(OutboxNotification notification) {
+        CompletableFuture<Void> delivery;
+        try {
+            delivery = notificationService.deliver(notification);
+        } catch (Exception e) {
+            delivery = CompletableFuture.failedFuture(e);
+        }
+        return delivery.handle((ignored, error) -> {
+            if (error == null) {
+                outboxRepository.updateStatus(notification.getId(), OutboxStatus.SENT, LocalDateTime.now(), null);
+            } else {
+                recordFailure(notification, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+            return null;
+        });
+    }
+
+    private void recordFailure(OutboxNotification notification, Throwable failure) {
+        int attempt = notification.getAttempts() + 1;
+        String error = truncate(failure.getMessage());
+        if (attempt >= maxAttempts || failure instanceof PermanentDeliveryException) {
+            logger.error("Giving up on notification {} to {} after {} attempts: {}",
+                    notification.getId(), notification.getRecipient(), attempt, error);
+            outboxRepository.updateStatus(notification.getId(), OutboxStatus.DEAD, LocalDateTime.now(), error);
+        } else {
+            logger.warn("Notification {} to {} failed (attempt {}): {}",
+                    notification.getId(), notification.getRecipient(), attempt, error);
+            outboxRepository.updateStatus(notification.getId(), OutboxStatus.PENDING,
+                    LocalDateTime.now().plus(backoff(attempt)), error);
+        }
+    }
+
+    Duration backoff(int attempt) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 20));
+        if (delay.compareTo(maxBackoff) > 0) {
+            delay = maxBackoff;
+        }
+        long jitterMillis = ThreadLocalRandom.current().nextLong(delay.toMillis() / 5 + 1);
+        return delay.plusMillis(jitterMillis);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+}
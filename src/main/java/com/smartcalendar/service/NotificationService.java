@@ -1,35 +1,140 @@
 package com.smartcalendar.service;
 
+import com.smartcalendar.model.NotificationChannel;
+import com.smartcalendar.model.NotificationPayload;
+import com.smartcalendar.model.OutboxNotification;
+import com.smartcalendar.model.OutboxStatus;
+import com.smartcalendar.repository.NotificationPayloadRepository;
+import com.smartcalendar.repository.OutboxNotificationRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
-    private final JavaMailSender mailSender;
+    private static final List<OutboxStatus> FINISHED = List.of(OutboxStatus.SENT, OutboxStatus.DEAD);
+
+    private final BatchingMailDispatcher mailDispatcher;
+    private final PushDispatcher pushDispatcher;
+    private final OutboxNotificationRepository outboxRepository;
+    private final NotificationPayloadRepository payloadRepository;
 
     @Value("${spring.mail.from:}")
     private String fromAddress;
 
-    public void sendEmail(String to, String subject, String text) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            if (fromAddress != null && !fromAddress.isBlank()) {
-                message.setFrom(fromAddress);
+    @Value("${app.notifications.coalesce.window:PT30S}")
+    private Duration coalesceWindow;
+
+    @Value("${app.notifications.coalesce.max-delay:PT5M}")
+    private Duration coalesceMaxDelay;
+
+    @Transactional
+    public void send(RenderedNotification notification, Collection<String> emails, Collection<String> deviceTokens) {
+        send(notification, emails, deviceTokens, null);
+    }
+
+    /**
+     * Queues a notification for every recipient. With a coalesce scope (e.g. one event), recipients that still
+     * have an unsent notification in the same scope get the new content in place of the old one, and its send
+     * time is pushed back by the coalesce window, but never past max-delay after it was first queued.
+     */
+    @Transactional
+    public void send(RenderedNotification notification, Collection<String> emails, Collection<String> deviceTokens,
+                     String coalesceScope) {
+        Set<String> emailRecipients = nonBlank(emails);
+        Set<String> pushRecipients = nonBlank(deviceTokens);
+        if (emailRecipients.isEmpty() && pushRecipients.isEmpty()) {
+            return;
+        }
+        enqueue(savePayload(notification), emailRecipients, pushRecipients, coalesceScope);
+    }
+
+    @Transactional
+    public NotificationPayload savePayload(RenderedNotification notification) {
+        return payloadRepository.save(new NotificationPayload(
+                notification.subject(), notification.body(), notification.pushTitle(), notification.pushBody()));
+    }
+
+    /**
+     * Queues an already stored payload for one batch of recipients, so large fan-outs can share a single payload
+     * across many calls. Returns the rows that were inserted; recipients coalesced into existing rows are not included.
+     */
+    @Transactional
+    public List<OutboxNotification> enqueue(NotificationPayload payload, Collection<String> emails,
+                                            Collection<String> deviceTokens, String coalesceScope) {
+        Set<String> emailRecipients = nonBlank(emails);
+        Set<String> pushRecipients = nonBlank(deviceTokens);
+        List<OutboxNotification> rows = new ArrayList<>(emailRecipients.size() + pushRecipients.size());
+        emailRecipients.forEach(email -> rows.add(new OutboxNotification(NotificationChannel.EMAIL, email, payload)));
+        pushRecipients.forEach(token -> rows.add(new OutboxNotification(NotificationChannel.PUSH, token, payload)));
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        if (coalesceScope == null) {
+            return outboxRepository.saveAll(rows);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime sendAt = now.plus(coalesceWindow);
+        Map<String, OutboxNotification> byKey = new LinkedHashMap<>();
+        for (OutboxNotification row : rows) {
+            row.setCoalesceKey(coalesceScope + ":" + row.getChannel() + ":" + row.getRecipient());
+            row.setNextAttemptAt(sendAt);
+            byKey.put(row.getCoalesceKey(), row);
+        }
+        List<String> keys = new ArrayList<>(byKey.keySet());
+        List<Long> replacedPayloadIds = outboxRepository.findPendingPayloadIds(keys);
+        if (!replacedPayloadIds.isEmpty()) {
+            outboxRepository.coalesce(keys, payload, sendAt, sendAt.minus(coalesceMaxDelay));
+            outboxRepository.findCoalesceKeysByPayload(payload, keys).forEach(byKey::remove);
+            payloadRepository.deleteUnreferenced(replacedPayloadIds);
+        }
+        return outboxRepository.saveAll(byKey.values());
+    }
+
+    @Transactional
+    public void purgeFinished(Duration retention) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        List<Long> payloadIds = outboxRepository.findPayloadIdsFinishedBefore(FINISHED, cutoff);
+        if (payloadIds.isEmpty()) {
+            return;
+        }
+        outboxRepository.deleteFinishedBefore(FINISHED, cutoff);
+        payloadRepository.deleteUnreferenced(payloadIds);
+    }
+
+    private static Set<String> nonBlank(Collection<String> recipients) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String recipient : recipients) {
+            if (recipient != null && !recipient.isBlank()) {
+                result.add(recipient);
             }
-            mailSender.send(message);
-        } catch (Exception e) {
-            System.err.println("Failed to send email to " + to + ": " + e.getMessage());
         }
+        return result;
     }
 
-    public void sendPush(String deviceToken, String title, String body) {
-        System.out.println("[STUB] Push to: " + deviceToken + ", title: " + title + ", body: " + body);
+    public CompletableFuture<Void> deliver(OutboxNotification notification) {
+        NotificationPayload payload = notification.getPayload();
+        return switch (notification.getChannel()) {
+            case EMAIL -> {
+                SimpleMailMessage message = new SimpleMailMessage();
+                message.setTo(notification.getRecipient());
+                message.setSubject(payload.getSubject());
+                message.setText(payload.getBody());
+                if (fromAddress != null && !fromAddress.isBlank()) {
+                    message.setFrom(fromAddress);
+                }
+                yield mailDispatcher.send(message);
+            }
+            case PUSH -> pushDispatcher.send(notification.getRecipient(), payload.getPushTitle(), payload.getPushBody());
+        };
     }
-}
\ No newline at end of file
+}
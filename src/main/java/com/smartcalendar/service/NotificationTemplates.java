@@ -0,0 +1,127 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.model.Event;
+import com.smartcalendar.model.NotificationType;
+import com.smartcalendar.model.Task;
+import com.smartcalendar.model.User;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+public class NotificationTemplates {
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static final CompiledTemplate EVENT_BODY = CompiledTemplate.compile(
+            "Hello!\n\n" +
+                    "{action}\n\n" +
+                    "Title: {title}\n" +
+                    "Type: {type}\n" +
+                    "Start: {start}\n" +
+                    "End: {end}\n" +
+                    "Location: {location}\n\n" +
+                    "Description: {description}\n\n" +
+                    "Organizer: {organizer}\n\n" +
+                    "This is an automatic notification from TimeTamer SmartCalendar.\n");
+
+    private static final CompiledTemplate TASK_BODY = CompiledTemplate.compile(
+            "Hello!\n\n" +
+                    "{action}\n\n" +
+                    "Title: {title}\n" +
+                    "Due: {due}\n\n" +
+                    "Description: {description}\n\n" +
+                    "This is an automatic notification from TimeTamer SmartCalendar.\n");
+
+    private record Definition(CompiledTemplate subject, String action, CompiledTemplate pushTitle,
+                              CompiledTemplate pushBody) {
+    }
+
+    private final Map<NotificationType, Definition> definitions = new EnumMap<>(NotificationType.class);
+
+    public NotificationTemplates() {
+        define(NotificationType.EVENT_INVITATION,
+                "[TimeTamer SmartCalendar] Event invitation: {title}",
+                "You have been invited to the event:",
+                "Invitation", "{body}");
+        define(NotificationType.EVENT_PARTICIPANT_ADDED,
+                "[TimeTamer SmartCalendar] You have been added to event: {title}",
+                "You have been added to the event:",
+                "Added to event", "You have been added to event: {title}");
+        define(NotificationType.EVENT_PARTICIPANT_REMOVED,
+                "[TimeTamer SmartCalendar] You have been removed from event: {title}",
+                "You have been removed from the event:",
+                "Removed from event", "You have been removed from event: {title}");
+        define(NotificationType.EVENT_UPDATED,
+                "[TimeTamer SmartCalendar] Event \"{previousTitle}\" has been updated",
+                "The event has been updated:",
+                "{subject}", "{body}");
+        define(NotificationType.EVENT_DELETED,
+                "[TimeTamer SmartCalendar] Event \"{previousTitle}\" has been deleted",
+                "The event has been deleted:",
+                "{subject}", "{body}");
+        define(NotificationType.EVENT_REMINDER,
+                "[TimeTamer SmartCalendar] Reminder: {title} at {start}",
+                "Reminder about an upcoming event:",
+                "Reminder", "{title} starts at {start}");
+        define(NotificationType.TASK_REMINDER,
+                "[TimeTamer SmartCalendar] Reminder: {title} is due at {due}",
+                "Reminder about a task:",
+                "Task reminder", "{title} is due at {due}");
+    }
+
+    private void define(NotificationType type, String subject, String action, String pushTitle, String pushBody) {
+        definitions.put(type, new Definition(CompiledTemplate.compile(subject), action,
+                CompiledTemplate.compile(pushTitle), CompiledTemplate.compile(pushBody)));
+    }
+
+    public RenderedNotification render(NotificationType type, Event event) {
+        return render(type, event, event.getTitle(), event.getOrganizer());
+    }
+
+    public RenderedNotification render(NotificationType type, Event event, String previousTitle, User organizer) {
+        Definition definition = definitions.get(type);
+        Map<String, String> values = new HashMap<>();
+        values.put("action", definition.action());
+        values.put("title", String.valueOf(event.getTitle()));
+        values.put("previousTitle", String.valueOf(previousTitle));
+        values.put("type", event.getType() != null ? event.getType().name() : "COMMON");
+        values.put("start", format(event.getStart()));
+        values.put("end", format(event.getEnd()));
+        values.put("location", event.getLocation() != null ? event.getLocation() : "unspecified");
+        values.put("description", event.getDescription() != null ? event.getDescription() : "No description");
+        values.put("organizer", organizer != null
+                ? organizer.getUsername() + " (" + organizer.getEmail() + ")"
+                : "a user");
+
+        String subject = definition.subject().render(values);
+        String body = EVENT_BODY.render(values);
+        values.put("subject", subject);
+        values.put("body", body);
+        return new RenderedNotification(subject, body,
+                definition.pushTitle().render(values), definition.pushBody().render(values));
+    }
+
+    public RenderedNotification render(NotificationType type, Task task) {
+        Definition definition = definitions.get(type);
+        Map<String, String> values = new HashMap<>();
+        values.put("action", definition.action());
+        values.put("title", String.valueOf(task.getTitle()));
+        values.put("due", format(task.getDueDateTime()));
+        values.put("description", task.getDescription() != null ? task.getDescription() : "No description");
+
+        String subject = definition.subject().render(values);
+        String body = TASK_BODY.render(values);
+        values.put("subject", subject);
+        values.put("body", body);
+        return new RenderedNotification(subject, body,
+                definition.pushTitle().render(values), definition.pushBody().render(values));
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.format(DATE_TIME_FORMATTER) : "unspecified";
+    }
+}
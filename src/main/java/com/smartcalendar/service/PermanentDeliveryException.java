@@ -0,0 +1,7 @@
+package com.smartcalendar.service;
+
+public class PermanentDeliveryException extends RuntimeException {
+    public PermanentDeliveryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,215 @@
+package com.smartcalendar.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartcalendar.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class PushDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(PushDispatcher.class);
+
+    public enum OverflowPolicy {
+        REJECT,
+        DROP_OLDEST
+    }
+
+    private record Content(String title, String body) {
+    }
+
+    private record PendingPush(String deviceToken, Content content, CompletableFuture<Void> result) {
+    }
+
+    private final PushGateway gateway;
+    private final UserRepository userRepository;
+    private final BlockingQueue<PendingPush> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final ExecutorService senders;
+    private final Semaphore batchSlots;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final int maxTokenFailures;
+    private final Cache<String, AtomicInteger> tokenFailures;
+    private volatile boolean running = true;
+    private Thread collector;
+
+    public PushDispatcher(PushGateway gateway,
+                          UserRepository userRepository,
+                          @Value("${app.push.batch.window:PT0.05S}") Duration window,
+                          @Value("${app.push.batch.max-size:500}") int maxBatchSize,
+                          @Value("${app.push.batch.max-concurrent:4}") int maxConcurrentBatches,
+                          @Value("${app.push.queue-capacity:10000}") int queueCapacity,
+                          @Value("${app.push.overflow-policy:REJECT}") OverflowPolicy overflowPolicy,
+                          @Value("${app.push.max-token-failures:5}") int maxTokenFailures) {
+        this.gateway = gateway;
+        this.userRepository = userRepository;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.batchSlots = new Semaphore(maxConcurrentBatches);
+        this.senders = Executors.newFixedThreadPool(maxConcurrentBatches, new CustomizableThreadFactory("push-sender-"));
+        this.maxTokenFailures = maxTokenFailures;
+        this.tokenFailures = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofDays(1))
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        collector = new Thread(this::collect, "push-batch-collector");
+        collector.setDaemon(true);
+        collector.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (collector != null) {
+            collector.join(window.toMillis() + 1000);
+        }
+        senders.shutdown();
+        senders.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues a push for batched delivery. A full queue either fails the new push or evicts the oldest one,
+     * depending on the overflow policy; the failed future lets the outbox retry it later.
+     */
+    public CompletableFuture<Void> send(String deviceToken, String title, String body) {
+        PendingPush pending = new PendingPush(deviceToken, new Content(title, body), new CompletableFuture<>());
+        if (!running) {
+            pending.result().completeExceptionally(new IllegalStateException("Push dispatcher is stopped"));
+            return pending.result();
+        }
+        while (!queue.offer(pending)) {
+            if (overflowPolicy == OverflowPolicy.REJECT) {
+                pending.result().completeExceptionally(new IllegalStateException("Push queue is full"));
+                return pending.result();
+            }
+            PendingPush dropped = queue.poll();
+            if (dropped != null) {
+                dropped.result().completeExceptionally(new IllegalStateException("Dropped from full push queue"));
+            }
+        }
+        return pending.result();
+    }
+
+    private void collect() {
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingPush first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingPush> drained = new ArrayList<>();
+                drained.add(first);
+                long deadline = System.nanoTime() + window.toNanos();
+                while (drained.size() < maxBatchSize && running) {
+                    queue.drainTo(drained, maxBatchSize - drained.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (drained.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingPush next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        drained.add(next);
+                    }
+                }
+                Map<Content, List<PendingPush>> byContent = new LinkedHashMap<>();
+                for (PendingPush pending : drained) {
+                    byContent.computeIfAbsent(pending.content(), key -> new ArrayList<>()).add(pending);
+                }
+                for (Map.Entry<Content, List<PendingPush>> batch : byContent.entrySet()) {
+                    submit(batch.getKey(), batch.getValue());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void submit(Content content, List<PendingPush> batch) throws InterruptedException {
+        batchSlots.acquire();
+        try {
+            senders.execute(() -> {
+                try {
+                    sendBatch(content, batch);
+                } finally {
+                    batchSlots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            batchSlots.release();
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    private void sendBatch(Content content, List<PendingPush> batch) {
+        List<String> tokens = batch.stream().map(PendingPush::deviceToken).toList();
+        List<PushGateway.Outcome> outcomes;
+        try {
+            outcomes = gateway.send(content.title(), content.body(), tokens);
+        } catch (RuntimeException e) {
+            // A gateway outage is not the tokens' fault, so it must not count toward pruning them
+            logger.warn("Push batch of {} failed: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> pending.result().completeExceptionally(
+                    new IllegalStateException("Push gateway unavailable: " + e.getMessage())));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            PendingPush pending = batch.get(i);
+            PushGateway.Outcome outcome = i < outcomes.size() ? outcomes.get(i) : PushGateway.Outcome.RETRY;
+            switch (outcome) {
+                case DELIVERED -> {
+                    tokenFailures.invalidate(pending.deviceToken());
+                    pending.result().complete(null);
+                }
+                case INVALID_TOKEN -> {
+                    prune(pending.deviceToken());
+                    pending.result().completeExceptionally(
+                            new PermanentDeliveryException("Device token is no longer registered"));
+                }
+                case RETRY -> handleRetry(pending, "Push gateway asked to retry");
+                case UNAVAILABLE -> pending.result().completeExceptionally(
+                        new IllegalStateException("Push gateway unavailable"));
+                case REJECTED -> pending.result().completeExceptionally(
+                        new PermanentDeliveryException("Push gateway rejected the message"));
+            }
+        }
+    }
+
+    private void handleRetry(PendingPush pending, String reason) {
+        int failures = tokenFailures.get(pending.deviceToken(), token -> new AtomicInteger()).incrementAndGet();
+        if (failures >= maxTokenFailures) {
+            prune(pending.deviceToken());
+            pending.result().completeExceptionally(new PermanentDeliveryException(
+                    "Device token failed " + failures + " times in a row: " + reason));
+        } else {
+            pending.result().completeExceptionally(new IllegalStateException(reason));
+        }
+    }
+
+    private void prune(String deviceToken) {
+        tokenFailures.invalidate(deviceToken);
+        try {
+            int cleared = userRepository.clearDeviceToken(deviceToken);
+            logger.info("Pruned dead device token from {} user(s)", cleared);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to prune dead device token: {}", e.getMessage());
+        }
+    }
+}
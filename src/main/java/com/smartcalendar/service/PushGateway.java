@@ -0,0 +1,21 @@
+package com.smartcalendar.service;
+
+import java.util.List;
+
+/**
+ * Delivers one push message to many devices. Implementations return one outcome per token, in input order.
+ * {@code RETRY} means the provider rejected this token for now; {@code UNAVAILABLE} means the provider itself
+ * could not be reached, which says nothing about the token. Throwing fails the whole batch the same way.
+ * {@code REJECTED} means the message itself was refused, so sending it again would fail for every token.
+ */
+public interface PushGateway {
+    enum Outcome {
+        DELIVERED,
+        RETRY,
+        UNAVAILABLE,
+        INVALID_TOKEN,
+        REJECTED
+    }
+
+    List<Outcome> send(String title, String body, List<String> deviceTokens);
+}
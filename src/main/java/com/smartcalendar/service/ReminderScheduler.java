@@ -0,0 +1,187 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.model.Reminder;
+import com.smartcalendar.repository.ReminderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fires reminders from an in-memory timing wheel. Only reminders due within {@code horizon} are held in memory;
+ * the window is extended in chunks by range scans over idx_reminders_fire_at, and reminders created or moved
+ * inside the loaded window are registered directly, so there is no per-reminder polling.
+ * <p>
+ * Every registration and every window scan takes a number from one sequence, and for each reminder the entry with
+ * the highest number wins. A scan numbered after a registration started after that registration's commit, so it
+ * read the same or newer data; a scan numbered before it may have read the row before the move, and loses.
+ */
+@Component
+@ConditionalOnProperty(name = "app.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private record Registration(long reminderId, long fireAtMillis, long sequence) {
+    }
+
+    private final ReminderService reminderService;
+    private final ReminderRepository reminderRepository;
+    private final long tickMillis;
+    private final long horizonMillis;
+    private final long loadChunkMillis;
+    private final Duration missedGrace;
+    private final Queue<Registration> inbox = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Registration> scheduled = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ScheduledExecutorService ticker =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("reminder-ticker-"));
+    private final ExecutorService firing =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("reminder-fire-"));
+    private HierarchicalTimingWheel<Registration> wheel;
+    private volatile long loadedUntilMillis;
+
+    public ReminderScheduler(ReminderService reminderService,
+                             ReminderRepository reminderRepository,
+                             @Value("${app.reminders.tick:PT1S}") Duration tick,
+                             @Value("${app.reminders.horizon:PT24H}") Duration horizon,
+                             @Value("${app.reminders.load-chunk:PT1H}") Duration loadChunk,
+                             @Value("${app.reminders.missed-grace:PT1H}") Duration missedGrace) {
+        this.reminderService = reminderService;
+        this.reminderRepository = reminderRepository;
+        this.tickMillis = tick.toMillis();
+        this.horizonMillis = horizon.toMillis();
+        this.loadChunkMillis = loadChunk.toMillis();
+        this.missedGrace = missedGrace;
+    }
+
+    @PostConstruct
+    public void start() {
+        long now = System.currentTimeMillis();
+        wheel = new HierarchicalTimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, now);
+        if (wheel.horizonMillis() - now < horizonMillis + loadChunkMillis) {
+            throw new IllegalStateException("app.reminders.horizon is too long for app.reminders.tick");
+        }
+        int expired = reminderService.deleteExpired(toLocal(now).minus(missedGrace));
+        if (expired > 0) {
+            logger.info("Dropped {} reminders that were missed by more than {}", expired, missedGrace);
+        }
+        loadedUntilMillis = now - missedGrace.toMillis();
+        ticker.scheduleAtFixedRate(this::tick, 0, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        firing.shutdown();
+    }
+
+    /**
+     * Registers a reminder created or moved after its time window was loaded; later windows pick it up by scan.
+     */
+    public void register(Long reminderId, LocalDateTime fireAt) {
+        Registration registration = new Registration(reminderId, toMillis(fireAt), sequence.incrementAndGet());
+        if (registration.fireAtMillis() < loadedUntilMillis) {
+            if (offer(registration)) {
+                inbox.add(registration);
+            }
+        } else {
+            // Only forget what this call supersedes; a newer scan may already hold the reminder
+            scheduled.computeIfPresent(reminderId,
+                    (id, current) -> current.sequence() < registration.sequence() ? null : current);
+        }
+    }
+
+    public int pendingCount() {
+        return scheduled.size();
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            Registration registration;
+            while ((registration = inbox.poll()) != null) {
+                wheel.schedule(registration.fireAtMillis(), registration);
+            }
+            extendHorizon(now);
+            List<Long> due = wheel.advance(now).stream()
+                    .filter(entry -> scheduled.remove(entry.reminderId(), entry))
+                    .map(Registration::reminderId)
+                    .toList();
+            if (!due.isEmpty()) {
+                firing.execute(() -> fire(due));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Reminder tick failed", e);
+        }
+    }
+
+    private void extendHorizon(long now) {
+        while (loadedUntilMillis < now + horizonMillis) {
+            long from = loadedUntilMillis;
+            long until = Math.max(from, now) + loadChunkMillis;
+            // Publish the new bound first so reminders saved during the scan register themselves directly
+            loadedUntilMillis = until;
+            load(toLocal(from), toLocal(until));
+        }
+    }
+
+    private void load(LocalDateTime from, LocalDateTime until) {
+        long scan = sequence.incrementAndGet();
+        LocalDateTime afterFireAt = from;
+        long afterId = 0;
+        List<Reminder> page;
+        do {
+            page = reminderRepository.findWindow(from, until, afterFireAt, afterId, PageRequest.ofSize(LOAD_PAGE_SIZE));
+            for (Reminder reminder : page) {
+                Registration registration = new Registration(reminder.getId(), toMillis(reminder.getFireAt()), scan);
+                if (offer(registration)) {
+                    wheel.schedule(registration.fireAtMillis(), registration);
+                }
+            }
+            if (!page.isEmpty()) {
+                Reminder last = page.get(page.size() - 1);
+                afterFireAt = last.getFireAt();
+                afterId = last.getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+    }
+
+    private boolean offer(Registration registration) {
+        Registration winner = scheduled.merge(registration.reminderId(), registration,
+                (current, candidate) -> candidate.sequence() > current.sequence() ? candidate : current);
+        return winner == registration;
+    }
+
+    private void fire(List<Long> reminderIds) {
+        try {
+            reminderService.fire(reminderIds, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            logger.error("Failed to fire {} reminders, retrying in a minute", reminderIds.size(), e);
+            LocalDateTime retryAt = LocalDateTime.now().plusMinutes(1);
+            reminderIds.forEach(id -> register(id, retryAt));
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,190 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.model.*;
+import com.smartcalendar.repository.EventRepository;
+import com.smartcalendar.repository.ReminderRepository;
+import com.smartcalendar.repository.TaskRepository;
+import com.smartcalendar.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ReminderService {
+    public static final int MAX_MINUTES_BEFORE = 60 * 24 * 30;
+
+    private final ReminderRepository reminderRepository;
+    private final EventRepository eventRepository;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final NotificationTemplates notificationTemplates;
+    private final ObjectProvider<ReminderScheduler> reminderScheduler;
+
+    @Transactional(readOnly = true)
+    public List<Reminder> getReminders(Long userId) {
+        return reminderRepository.findByUserIdOrderByFireAtAsc(userId);
+    }
+
+    /**
+     * Adds a reminder {@code minutesBefore} the event start or task due time; empty if the target does not exist
+     * or is not visible to the user.
+     */
+    @Transactional
+    public Optional<Reminder> addReminder(Long userId, ReminderTargetType targetType, UUID targetId, int minutesBefore) {
+        if (minutesBefore < 0 || minutesBefore > MAX_MINUTES_BEFORE) {
+            throw new IllegalArgumentException("minutesBefore must be between 0 and " + MAX_MINUTES_BEFORE);
+        }
+        Optional<LocalDateTime> reference = switch (targetType) {
+            case EVENT -> eventRepository.findById(targetId)
+                    .filter(event -> isVisibleTo(event, userId))
+                    .map(Event::getStart);
+            case TASK -> taskRepository.findById(targetId)
+                    .filter(task -> task.getUser() != null && task.getUser().getId().equals(userId))
+                    .map(Task::getDueDateTime);
+        };
+        if (reference.isEmpty()) {
+            return Optional.empty();
+        }
+        Reminder reminder = reminderRepository.save(new Reminder(userId, targetType, targetId, minutesBefore,
+                reference.get().minusMinutes(minutesBefore)));
+        schedule(reminder);
+        return Optional.of(reminder);
+    }
+
+    @Transactional
+    public boolean deleteReminder(Long userId, Long reminderId) {
+        Optional<Reminder> reminder = reminderRepository.findById(reminderId)
+                .filter(r -> r.getUserId().equals(userId));
+        reminder.ifPresent(reminderRepository::delete);
+        return reminder.isPresent();
+    }
+
+    @Transactional
+    public void onEventChanged(Event event) {
+        reschedule(ReminderTargetType.EVENT, event.getId(), event.getStart());
+    }
+
+    @Transactional
+    public void onTaskChanged(Task task) {
+        reschedule(ReminderTargetType.TASK, task.getId(), task.getDueDateTime());
+    }
+
+    @Transactional
+    public void onTargetDeleted(ReminderTargetType targetType, UUID targetId) {
+        reminderRepository.deleteByTarget(targetType, targetId);
+    }
+
+    private void reschedule(ReminderTargetType targetType, UUID targetId, LocalDateTime reference) {
+        List<Reminder> reminders = reminderRepository.findByTargetTypeAndTargetId(targetType, targetId);
+        if (reference == null) {
+            reminderRepository.deleteAll(reminders);
+            return;
+        }
+        for (Reminder reminder : reminders) {
+            LocalDateTime fireAt = reference.minusMinutes(reminder.getMinutesBefore());
+            if (!fireAt.equals(reminder.getFireAt())) {
+                reminder.setFireAt(fireAt);
+                schedule(reminder);
+            }
+        }
+    }
+
+    private void schedule(Reminder reminder) {
+        ReminderScheduler scheduler = reminderScheduler.getIfAvailable();
+        if (scheduler == null) {
+            return;
+        }
+        Long id = reminder.getId();
+        LocalDateTime fireAt = reminder.getFireAt();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduler.register(id, fireAt);
+                }
+            });
+        } else {
+            scheduler.register(id, fireAt);
+        }
+    }
+
+    /**
+     * Sends and removes the given reminders. Reminders that were deleted or moved later since they were
+     * scheduled are skipped; a moved reminder has already been registered again at its new time.
+     */
+    @Transactional
+    public int fire(Collection<Long> reminderIds, LocalDateTime now) {
+        List<Reminder> due = reminderRepository.findAllById(reminderIds).stream()
+                .filter(reminder -> !reminder.getFireAt().isAfter(now))
+                .toList();
+        if (due.isEmpty()) {
+            return 0;
+        }
+        Map<Long, User> users = byId(userRepository.findAllById(ids(due, Reminder::getUserId)), User::getId);
+        Map<UUID, Event> events = byId(eventRepository.findAllById(targetIds(due, ReminderTargetType.EVENT)), Event::getId);
+        Map<UUID, Task> tasks = byId(taskRepository.findAllById(targetIds(due, ReminderTargetType.TASK)), Task::getId);
+
+        for (Reminder reminder : due) {
+            User user = users.get(reminder.getUserId());
+            if (user == null) {
+                continue;
+            }
+            RenderedNotification notification = null;
+            if (reminder.getTargetType() == ReminderTargetType.EVENT) {
+                Event event = events.get(reminder.getTargetId());
+                if (event != null && !event.isCompleted() && isVisibleTo(event, user.getId())) {
+                    notification = notificationTemplates.render(NotificationType.EVENT_REMINDER, event);
+                }
+            } else {
+                Task task = tasks.get(reminder.getTargetId());
+                if (task != null && !task.isCompleted()) {
+                    notification = notificationTemplates.render(NotificationType.TASK_REMINDER, task);
+                }
+            }
+            if (notification != null) {
+                notificationService.send(notification,
+                        Collections.singletonList(user.getEmail()), Collections.singletonList(user.getDeviceToken()));
+            }
+        }
+        reminderRepository.deleteAllInBatch(due);
+        return due.size();
+    }
+
+    @Transactional
+    public int deleteExpired(LocalDateTime before) {
+        return reminderRepository.deleteByFireAtBefore(before);
+    }
+
+    private static <K, T> Map<K, T> byId(List<T> entities, Function<T, K> idOf) {
+        return entities.stream().collect(Collectors.toMap(idOf, Function.identity()));
+    }
+
+    private static <K> Set<K> ids(List<Reminder> reminders, Function<Reminder, K> idOf) {
+        return reminders.stream().map(idOf).collect(Collectors.toSet());
+    }
+
+    private static Set<UUID> targetIds(List<Reminder> reminders, ReminderTargetType targetType) {
+        return reminders.stream()
+                .filter(reminder -> reminder.getTargetType() == targetType)
+                .map(Reminder::getTargetId)
+                .collect(Collectors.toSet());
+    }
+
+    private static boolean isVisibleTo(Event event, Long userId) {
+        if (event.getOrganizer() != null && event.getOrganizer().getId().equals(userId)) {
+            return true;
+        }
+        return event.getParticipants() != null
+                && event.getParticipants().stream().anyMatch(user -> user.getId().equals(userId));
+    }
+}
@@ -0,0 +1,4 @@
+package com.smartcalendar.service;
+
+public record RenderedNotification(String subject, String body, String pushTitle, String pushBody) {
+}
@@ -0,0 +1,64 @@
+package com.smartcalendar.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls with the same key into one: the first caller runs the call, everyone arriving while
+ * it is in flight gets the same outcome. The key is released before the outcome is published, so a caller that
+ * comes after completion starts a fresh call.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    public CompletableFuture<V> execute(K key, Supplier<? extends CompletionStage<V>> call) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            collapsed.increment();
+            // A copy, so one caller cancelling does not cancel the call for the others
+            return existing.copy();
+        }
+        executed.increment();
+        try {
+            call.get().whenComplete((value, error) -> {
+                inFlight.remove(key, created);
+                if (error != null) {
+                    created.completeExceptionally(error);
+                } else {
+                    created.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created.copy();
+    }
+
+    public V executeBlocking(K key, Supplier<V> call) {
+        try {
+            return execute(key, () -> CompletableFuture.completedFuture(call.get())).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    public long executedCount() {
+        return executed.sum();
+    }
+
+    public long collapsedCount() {
+        return collapsed.sum();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
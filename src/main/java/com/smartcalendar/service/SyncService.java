@@ -0,0 +1,181 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.dto.SyncOperation;
+import com.smartcalendar.dto.SyncResult;
+import com.smartcalendar.model.ChangeOperation;
+import com.smartcalendar.model.Event;
+import com.smartcalendar.model.ReminderTargetType;
+import com.smartcalendar.model.Task;
+import com.smartcalendar.model.User;
+import com.smartcalendar.repository.EventRepository;
+import com.smartcalendar.repository.TaskRepository;
+import com.smartcalendar.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+    private final TaskRepository taskRepository;
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final ChangeLogService changeLogService;
+    private final ReminderService reminderService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional
+    public List<SyncResult> apply(Long userId, List<SyncOperation> operations) {
+        User user = userRepository.getReferenceById(userId);
+        Map<UUID, Task> tasks = loadExisting(operations, SyncOperation.EntityType.TASK,
+                taskRepository::findAllById, Task::getId);
+        Map<UUID, Event> events = loadExisting(operations, SyncOperation.EntityType.EVENT,
+                eventRepository::findAllById, Event::getId);
+
+        List<SyncResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            SyncOperation operation = operations.get(i);
+            if (operation.getAction() == null || operation.getEntity() == null) {
+                results.add(SyncResult.failed(i, operation.getId(), SyncResult.Status.INVALID,
+                        "action and entity are required"));
+            } else if (operation.getEntity() == SyncOperation.EntityType.TASK) {
+                results.add(applyTask(i, operation, user, userId, tasks));
+            } else {
+                results.add(applyEvent(i, operation, user, userId, events));
+            }
+        }
+        return results;
+    }
+
+    private <T> Map<UUID, T> loadExisting(List<SyncOperation> operations, SyncOperation.EntityType type,
+                                          Function<Set<UUID>, List<T>> finder, Function<T, UUID> idOf) {
+        Set<UUID> ids = operations.stream()
+                .filter(op -> op.getEntity() == type && op.getId() != null)
+                .map(SyncOperation::getId)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        return finder.apply(ids).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+    }
+
+    private SyncResult applyTask(int index, SyncOperation operation, User user, Long userId, Map<UUID, Task> tasks) {
+        UUID id = operation.getId();
+        Task existing = id != null ? tasks.get(id) : null;
+
+        if (operation.getAction() == SyncOperation.Action.CREATE) {
+            Task task = operation.getTask();
+            if (task == null) {
+                return SyncResult.failed(index, id, SyncResult.Status.INVALID, "task is required");
+            }
+            if (existing != null) {
+                return SyncResult.failed(index, id, SyncResult.Status.CONFLICT, "Task with this id already exists");
+            }
+            task.setId(id);
+            task.setUser(user);
+            entityManager.persist(task);
+            changeLogService.recordTask(task, ChangeOperation.UPSERT);
+            tasks.put(task.getId(), task);
+            return SyncResult.applied(index, task.getId());
+        }
+
+        if (existing == null) {
+            return SyncResult.failed(index, id, SyncResult.Status.NOT_FOUND, "Task not found");
+        }
+        if (!existing.getUser().getId().equals(userId)) {
+            return SyncResult.failed(index, id, SyncResult.Status.FORBIDDEN, "Task belongs to another user");
+        }
+        if (operation.getAction() == SyncOperation.Action.DELETE) {
+            changeLogService.recordTask(existing, ChangeOperation.DELETE);
+            reminderService.onTargetDeleted(ReminderTargetType.TASK, id);
+            taskRepository.delete(existing);
+            tasks.remove(id);
+            return SyncResult.applied(index, id);
+        }
+        Task task = operation.getTask();
+        if (task == null) {
+            return SyncResult.failed(index, id, SyncResult.Status.INVALID, "task is required");
+        }
+        existing.setTitle(task.getTitle());
+        existing.setDescription(task.getDescription());
+        existing.setCompleted(task.isCompleted());
+        existing.setDueDateTime(task.getDueDateTime());
+        existing.setAllDay(task.getAllDay());
+        if (task.getCreationTime() != null) {
+            existing.setCreationTime(task.getCreationTime());
+        }
+        changeLogService.recordTask(existing, ChangeOperation.UPSERT);
+        reminderService.onTaskChanged(existing);
+        return SyncResult.applied(index, id);
+    }
+
+    private SyncResult applyEvent(int index, SyncOperation operation, User user, Long userId, Map<UUID, Event> events) {
+        UUID id = operation.getId();
+        if (id == null) {
+            return SyncResult.failed(index, null, SyncResult.Status.INVALID, "id is required");
+        }
+        Event existing = events.get(id);
+
+        if (operation.getAction() == SyncOperation.Action.CREATE) {
+            Event event = operation.getEvent();
+            if (event == null) {
+                return SyncResult.failed(index, id, SyncResult.Status.INVALID, "event is required");
+            }
+            if (existing != null) {
+                return SyncResult.failed(index, id, SyncResult.Status.CONFLICT, "Event with this id already exists");
+            }
+            event.setId(id);
+            event.setOrganizer(user);
+            event.setShared(false);
+            event.setInvitations(new ArrayList<>());
+            event.setParticipants(new ArrayList<>(List.of(user)));
+            entityManager.persist(event);
+            changeLogService.recordEvent(event, ChangeOperation.UPSERT);
+            events.put(id, event);
+            return SyncResult.applied(index, id);
+        }
+
+        if (existing == null) {
+            return SyncResult.failed(index, id, SyncResult.Status.NOT_FOUND, "Event not found");
+        }
+        if (!existing.getOrganizer().getId().equals(userId)) {
+            return SyncResult.failed(index, id, SyncResult.Status.FORBIDDEN, "Only organizer can change the event");
+        }
+        if (operation.getAction() == SyncOperation.Action.DELETE) {
+            userService.notifyEventDeleted(existing);
+            changeLogService.recordEvent(existing, ChangeOperation.DELETE);
+            reminderService.onTargetDeleted(ReminderTargetType.EVENT, id);
+            eventRepository.delete(existing);
+            events.remove(id);
+            return SyncResult.applied(index, id);
+        }
+        Event event = operation.getEvent();
+        if (event == null) {
+            return SyncResult.failed(index, id, SyncResult.Status.INVALID, "event is required");
+        }
+        String previousTitle = existing.getTitle();
+        User organizer = existing.getOrganizer();
+        existing.setTitle(event.getTitle());
+        existing.setDescription(event.getDescription());
+        existing.setStart(event.getStart());
+        existing.setEnd(event.getEnd());
+        existing.setLocation(event.getLocation());
+        existing.setType(event.getType());
+        existing.setCreationTime(event.getCreationTime());
+        existing.setCompleted(event.isCompleted());
+        changeLogService.recordEvent(existing, ChangeOperation.UPSERT);
+        reminderService.onEventChanged(existing);
+        userService.notifyEventUpdated(existing, previousTitle, organizer);
+        return SyncResult.applied(index, id);
+    }
+}
@@ -1,18 +1,35 @@
 package com.smartcalendar.service;
 
+import com.smartcalendar.dto.BulkInviteResult;
+import com.smartcalendar.dto.ChangeSet;
 import com.smartcalendar.dto.DailyTaskDto;
 import com.smartcalendar.dto.EventDto;
+import com.smartcalendar.dto.KeysetPage;
+import com.smartcalendar.dto.PageCursor;
 import com.smartcalendar.dto.StatisticsData;
 import com.smartcalendar.dto.UserShortDto;
+import com.smartcalendar.model.ChangeLogEntry;
+import com.smartcalendar.model.ChangeOperation;
 import com.smartcalendar.model.Event;
+import com.smartcalendar.model.Invitation;
+import com.smartcalendar.model.InvitationStatus;
+import com.smartcalendar.model.NotificationType;
+import com.smartcalendar.model.ReminderTargetType;
 import com.smartcalendar.model.Task;
 import com.smartcalendar.model.User;
 import com.smartcalendar.repository.EventRepository;
+import com.smartcalendar.repository.InvitationRepository;
 import com.smartcalendar.repository.StatisticsRepository;
 import com.smartcalendar.repository.TaskRepository;
 import com.smartcalendar.repository.UserRepository;
+import com.smartcalendar.security.PrincipalCache;
+import com.smartcalendar.security.UserPrincipal;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.validation.constraints.Email;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -20,9 +37,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -30,10 +49,19 @@ public class UserService {
     private final UserRepository userRepository;
     private final TaskRepository taskRepository;
     private final EventRepository eventRepository;
+    private final InvitationRepository invitationRepository;
     private final PasswordEncoder passwordEncoder;
     private final StatisticsService statisticsService;
     private final StatisticsRepository statisticsRepository;
     private final NotificationService notificationService;
+    private final EventFanoutService eventFanoutService;
+    private final NotificationTemplates notificationTemplates;
+    private final ReminderService reminderService;
+    private final PrincipalCache principalCache;
+    private final ChangeLogService changeLogService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public User createUser(User user) {
         if (userRepository.existsByUsername(user.getUsername())) {
@@ -50,6 +78,10 @@ public class UserService {
         return userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    public User getUserReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+
     public List<User> findAllUsers() {
         return userRepository.findAll();
     }
@@ -58,21 +90,37 @@ public class UserService {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
+
+    public UserPrincipal loadPrincipalByUsername(String username) throws UsernameNotFoundException {
+        return principalCache.get(username, name -> userRepository.findByUsername(name)
+                .map(UserPrincipal::from)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found")));
+    }
+
     public List<Task> findTasksByUserId(Long userId) {
         return taskRepository.findByUserId(userId);
     }
 
+    @Transactional
     public Task createTask(Task task) {
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        changeLogService.recordTask(saved, ChangeOperation.UPSERT);
+        return saved;
     }
 
     @Transactional
     public void deleteTask(UUID taskId) {
+        taskRepository.findById(taskId)
+                .ifPresent(task -> changeLogService.recordTask(task, ChangeOperation.DELETE));
+        reminderService.onTargetDeleted(ReminderTargetType.TASK, taskId);
         taskRepository.deleteById(taskId);
     }
 
     @Transactional
     public void deleteEvent(UUID eventId) {
+        eventRepository.findById(eventId)
+                .ifPresent(event -> changeLogService.recordEvent(event, ChangeOperation.DELETE));
+        reminderService.onTargetDeleted(ReminderTargetType.EVENT, eventId);
         eventRepository.deleteById(eventId);
     }
 
@@ -90,6 +138,7 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (passwordEncoder.matches(currentPassword, user.getPassword())) {
+            principalCache.invalidate(currentUsername);
             if (newUsername != null && !newUsername.isEmpty()) {
                 user.setUsername(newUsername);
             }
@@ -127,6 +176,7 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         user.setEmail(newEmail);
+        principalCache.invalidate(user.getUsername());
         return userRepository.save(user);
     }
 
@@ -135,6 +185,7 @@ public class UserService {
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
         task.setCompleted(completed);
+        changeLogService.recordTask(task, ChangeOperation.UPSERT);
         return taskRepository.save(task);
     }
 
@@ -149,6 +200,8 @@ public class UserService {
         existingEvent.setLocation(event.getLocation());
         existingEvent.setType(event.getType());
         existingEvent.setCreationTime(event.getCreationTime());
+        changeLogService.recordEvent(existingEvent, ChangeOperation.UPSERT);
+        reminderService.onEventChanged(existingEvent);
         eventRepository.save(existingEvent);
     }
 
@@ -159,19 +212,17 @@ public class UserService {
         return task.getDescription();
     }
 
+    @Transactional(readOnly = true)
     public List<Event> findEventsByUserId(Long userId) {
-        List<Event> asOrganizer = eventRepository.findByOrganizerId(userId);
-        List<Event> asParticipant = eventRepository.findAll().stream()
-                .filter(e -> e.getParticipants() != null && e.getParticipants().stream().anyMatch(u -> u.getId().equals(userId)))
-                .collect(Collectors.toList());
-        Set<Event> all = new HashSet<>(asOrganizer);
-        all.addAll(asParticipant);
-        return new ArrayList<>(all);
+        return eventRepository.findByOrganizerOrParticipant(userId);
     }
 
+    @Transactional
     public Event createEvent(Event event) {
         event.setId(null);
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        changeLogService.recordEvent(saved, ChangeOperation.UPSERT);
+        return saved;
     }
 
     public Optional<User> findByUsername(String username) {
@@ -180,7 +231,78 @@ public class UserService {
 
     public List<DailyTaskDto> findAllEventsAsDailyTaskDto(Long userId) {
         List<Event> events = findEventsByUserId(userId);
-        return events.stream().map(event -> new DailyTaskDto(
+        return events.stream().map(this::toDailyTaskDto).collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Event> findEventsByUserIdBetween(Long userId, LocalDateTime from, LocalDateTime to) {
+        return eventRepository.findByOrganizerOrParticipantBetween(userId, from, to);
+    }
+
+    public List<DailyTaskDto> findEventsAsDailyTaskDtoBetween(Long userId, LocalDateTime from, LocalDateTime to) {
+        List<Event> events = findEventsByUserIdBetween(userId, from, to);
+        return events.stream().map(this::toDailyTaskDto).collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<Task> findTasksPage(Long userId, String cursor, int limit) {
+        Pageable pageable = PageRequest.ofSize(limit + 1);
+        List<Task> tasks;
+        if (cursor == null) {
+            tasks = taskRepository.findByUserIdOrderByCreationTimeAscIdAsc(userId, pageable);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            if (after.getPosition() == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            tasks = taskRepository.findPageByUserIdAfter(userId, after.getPosition(), after.getId(), pageable);
+        }
+        if (tasks.size() <= limit) {
+            return new KeysetPage<>(tasks, null);
+        }
+        List<Task> items = tasks.subList(0, limit);
+        Task last = items.get(limit - 1);
+        return new KeysetPage<>(items, new PageCursor(last.getCreationTime(), last.getId()).encode());
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<EventDto> findEventsPage(Long userId, String cursor, int limit) {
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+        List<Event> events = new ArrayList<>(limit + 1);
+        if (after == null) {
+            events.addAll(eventRepository.findPageByOrganizerOrParticipant(userId, PageRequest.ofSize(limit + 1)));
+        } else if (after.getPosition() != null) {
+            events.addAll(eventRepository.findPageByOrganizerOrParticipantAfter(userId,
+                    after.getPosition(), after.getId(), PageRequest.ofSize(limit + 1)));
+        }
+        // Events without a start follow the dated ones, in id order
+        if (events.size() <= limit) {
+            Pageable rest = PageRequest.ofSize(limit + 1 - events.size());
+            events.addAll(after == null || after.getPosition() != null
+                    ? eventRepository.findUndatedPageByOrganizerOrParticipant(userId, rest)
+                    : eventRepository.findUndatedPageByOrganizerOrParticipantAfter(userId, after.getId(), rest));
+        }
+        String nextCursor = null;
+        if (events.size() > limit) {
+            events = events.subList(0, limit);
+            Event last = events.get(limit - 1);
+            nextCursor = new PageCursor(last.getStart(), last.getId()).encode();
+        }
+        return new KeysetPage<>(events.stream().map(this::toEventDto).toList(), nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachEventDto(Long userId, Consumer<EventDto> action) {
+        try (Stream<Event> events = eventRepository.streamByOrganizerOrParticipant(userId)) {
+            events.forEach(event -> {
+                action.accept(toEventDto(event));
+                entityManager.detach(event);
+            });
+        }
+    }
+
+    private DailyTaskDto toDailyTaskDto(Event event) {
+        return new DailyTaskDto(
                 event.getId(),
                 event.getTitle(),
                 event.isCompleted(),
@@ -190,7 +312,7 @@ public class UserService {
                 event.getStart() != null ? event.getStart().toLocalTime() : null,
                 event.getEnd() != null ? event.getEnd().toLocalTime() : null,
                 event.getStart() != null ? event.getStart().toLocalDate() : null
-        )).collect(Collectors.toList());
+        );
     }
 
     public Task getTaskById(UUID taskId) {
@@ -208,11 +330,18 @@ public class UserService {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
         event.setCompleted(completed);
+        changeLogService.recordEvent(event, ChangeOperation.UPSERT);
+        notifyEventUpdated(event, event.getTitle(), event.getOrganizer());
         return eventRepository.save(event);
     }
 
     @Transactional
     public UUID deleteEventById(UUID eventId) {
+        eventRepository.findById(eventId).ifPresent(event -> {
+            changeLogService.recordEvent(event, ChangeOperation.DELETE);
+            notifyEventDeleted(event);
+        });
+        reminderService.onTargetDeleted(ReminderTargetType.EVENT, eventId);
         eventRepository.deleteById(eventId);
         return eventId;
     }
@@ -224,6 +353,7 @@ public class UserService {
     @Transactional
     public void updateStatistics(Long userId, StatisticsData statisticsData) {
         statisticsService.updateStatistics(userId, statisticsData);
+        changeLogService.recordStatistics(userId);
     }
 
     @Transactional
@@ -231,7 +361,9 @@ public class UserService {
         if (task.getId() != null && taskRepository.existsById(task.getId())) {
             throw new IllegalArgumentException("Task with this id already exists");
         }
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        changeLogService.recordTask(saved, ChangeOperation.UPSERT);
+        return saved;
     }
 
     @Transactional
@@ -243,7 +375,11 @@ public class UserService {
         existingTask.setCompleted(task.isCompleted());
         existingTask.setDueDateTime(task.getDueDateTime());
         existingTask.setAllDay(task.getAllDay());
-        existingTask.setCreationTime(task.getCreationTime());
+        if (task.getCreationTime() != null) {
+            existingTask.setCreationTime(task.getCreationTime());
+        }
+        changeLogService.recordTask(existingTask, ChangeOperation.UPSERT);
+        reminderService.onTaskChanged(existingTask);
         taskRepository.save(existingTask);
     }
 
@@ -252,13 +388,17 @@ public class UserService {
         if (event.getId() != null && eventRepository.existsById(event.getId())) {
             throw new IllegalArgumentException("Event with this id already exists");
         }
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        changeLogService.recordEvent(saved, ChangeOperation.UPSERT);
+        return saved;
     }
 
     @Transactional
     public void editEvent(UUID eventId, Event event) {
         Event existingEvent = eventRepository.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
+        String previousTitle = existingEvent.getTitle();
+        User organizer = existingEvent.getOrganizer();
         existingEvent.setTitle(event.getTitle());
         existingEvent.setDescription(event.getDescription());
         existingEvent.setStart(event.getStart());
@@ -267,6 +407,9 @@ public class UserService {
         existingEvent.setType(event.getType());
         existingEvent.setCreationTime(event.getCreationTime());
         existingEvent.setCompleted(event.isCompleted());
+        changeLogService.recordEvent(existingEvent, ChangeOperation.UPSERT);
+        reminderService.onEventChanged(existingEvent);
+        notifyEventUpdated(existingEvent, previousTitle, organizer);
         eventRepository.save(existingEvent);
     }
 
@@ -278,6 +421,7 @@ public class UserService {
 
     @Transactional
     public void deleteUser(Long userId) {
+        userRepository.findById(userId).ifPresent(user -> principalCache.invalidate(user.getUsername()));
         userRepository.deleteById(userId);
     }
 
@@ -286,102 +430,130 @@ public class UserService {
     }
 
     public void notifyUserAddedToEvent(User user, Event event, String deviceToken) {
-        if (user.getEmail() != null && !user.getEmail().isBlank()) {
-            String subject = "[TimeTamer SmartCalendar] You have been added to event: " + event.getTitle();
-            String text = buildEventNotificationText(
-                    "You have been added to the event:",
-                    event,
-                    event.getOrganizer()
-            );
-            notificationService.sendEmail(user.getEmail(), subject, text);
-        }
-        if (deviceToken != null && !deviceToken.isBlank()) {
-            notificationService.sendPush(
-                    deviceToken,
-                    "Added to event",
-                    "You have been added to event: " + event.getTitle()
-            );
-        }
+        notificationService.send(notificationTemplates.render(NotificationType.EVENT_PARTICIPANT_ADDED, event),
+                Collections.singletonList(user.getEmail()), Collections.singletonList(deviceToken));
     }
 
     public void notifyUserRemovedFromEvent(User user, Event event, String deviceToken) {
-        if (user.getEmail() != null && !user.getEmail().isBlank()) {
-            String subject = "[TimeTamer SmartCalendar] You have been removed from event: " + event.getTitle();
-            String text = buildEventNotificationText(
-                    "You have been removed from the event:",
-                    event,
-                    event.getOrganizer()
-            );
-            notificationService.sendEmail(user.getEmail(), subject, text);
+        notificationService.send(notificationTemplates.render(NotificationType.EVENT_PARTICIPANT_REMOVED, event),
+                Collections.singletonList(user.getEmail()), Collections.singletonList(deviceToken));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Event> findEventsByInvitee(String email) {
+        return invitationRepository.findEventsByInviteeEmailAndStatus(email, InvitationStatus.PENDING);
+    }
+
+    @Transactional
+    public Event addInvitation(Event event, String email) {
+        return addInvitations(event, List.of(email));
+    }
+
+    @Transactional
+    public Event addInvitations(Event event, Collection<String> emails) {
+        Map<String, Invitation> existing = event.getInvitations().stream()
+                .collect(Collectors.toMap(Invitation::getInviteeEmail, i -> i, (a, b) -> a));
+        Set<String> newlyInvited = new LinkedHashSet<>();
+        for (String email : emails) {
+            Invitation invitation = existing.get(email);
+            if (invitation == null) {
+                invitation = new Invitation(event, email);
+                event.getInvitations().add(invitation);
+                existing.put(email, invitation);
+                newlyInvited.add(email);
+            } else if (invitation.getStatus() != InvitationStatus.PENDING) {
+                newlyInvited.add(email);
+            }
+            invitation.setStatus(InvitationStatus.PENDING);
         }
-        if (deviceToken != null && !deviceToken.isBlank()) {
-            notificationService.sendPush(deviceToken,
-                    "Removed from event",
-                    "You have been removed from event: " + event.getTitle());
+        event.setShared(true);
+        changeLogService.recordEvent(event, ChangeOperation.UPSERT);
+        notifyInvitees(event, newlyInvited);
+        return eventRepository.save(event);
+    }
+
+    @Transactional
+    public BulkInviteResult inviteAll(Event event, Collection<String> loginsOrEmails) {
+        Set<String> requested = new LinkedHashSet<>(loginsOrEmails);
+        Map<String, User> byUsername = new HashMap<>();
+        Map<String, User> byEmail = new HashMap<>();
+        for (User user : userRepository.findByUsernameInOrEmailIn(requested, requested)) {
+            byUsername.put(user.getUsername(), user);
+            byEmail.put(user.getEmail(), user);
+        }
+        Set<Long> participantIds = event.getParticipants() == null ? Set.of() : event.getParticipants().stream()
+                .map(User::getId)
+                .collect(Collectors.toSet());
+        Set<String> pending = new HashSet<>(event.getInvitees());
+
+        BulkInviteResult result = new BulkInviteResult();
+        Set<String> emails = new LinkedHashSet<>();
+        for (String loginOrEmail : requested) {
+            User user = byUsername.getOrDefault(loginOrEmail, byEmail.get(loginOrEmail));
+            if (user == null) {
+                result.getNotFound().add(loginOrEmail);
+            } else if (participantIds.contains(user.getId())) {
+                result.getAlreadyParticipant().add(user.getUsername());
+            } else if (pending.contains(user.getEmail()) || !emails.add(user.getEmail())) {
+                result.getAlreadyInvited().add(user.getUsername());
+            } else {
+                result.getInvited().add(user.getUsername());
+            }
         }
+        if (!emails.isEmpty()) {
+            addInvitations(event, emails);
+        }
+        return result;
     }
 
-    private String buildEventNotificationText(String action, Event event, User organizer) {
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        String organizerName = organizer != null
-                ? organizer.getUsername() + " (" + organizer.getEmail() + ")"
-                : "a user";
-        String eventType = event.getType() != null ? event.getType().name() : "COMMON";
-        String start = event.getStart() != null ? event.getStart().format(dtf) : "unspecified";
-        String end = event.getEnd() != null ? event.getEnd().format(dtf) : "unspecified";
-        String location = event.getLocation() != null ? event.getLocation() : "unspecified";
-
-        return String.format(
-                "Hello!\n\n" +
-                        "%s\n\n" +
-                        "Title: %s\n" +
-                        "Type: %s\n" +
-                        "Start: %s\n" +
-                        "End: %s\n" +
-                        "Location: %s\n\n" +
-                        "Description: %s\n\n" +
-                        "Organizer: %s\n\n" +
-                        "This is an automatic notification from TimeTamer SmartCalendar.\n",
-                action,
-                event.getTitle(),
-                eventType,
-                start,
-                end,
-                location,
-                event.getDescription() != null ? event.getDescription() : "No description",
-                organizerName
-        );
+    @Transactional
+    public Event removeInvitation(Event event, String email) {
+        event.getInvitations().removeIf(i ->
+                i.getInviteeEmail().equals(email) && i.getStatus() == InvitationStatus.PENDING);
+        changeLogService.recordEvent(event, ChangeOperation.UPSERT);
+        return eventRepository.save(event);
     }
 
-    public List<Event> findEventsByInvitee(String email) {
-        return eventRepository.findAll().stream()
-                .filter(event -> event.getInvitees() != null && event.getInvitees().contains(email))
-                .collect(Collectors.toList());
+    @Transactional
+    public Event acceptInvitation(Event event, User user) {
+        event.getInvitations().stream()
+                .filter(i -> i.getInviteeEmail().equals(user.getEmail()) && i.getStatus() == InvitationStatus.PENDING)
+                .forEach(i -> i.setStatus(InvitationStatus.ACCEPTED));
+        if (!event.getParticipants().contains(user)) {
+            event.getParticipants().add(user);
+        }
+        changeLogService.recordEvent(event, ChangeOperation.UPSERT);
+        notifyUserAddedToEvent(user, event, user.getDeviceToken());
+        return eventRepository.save(event);
     }
 
+    @Transactional
+    public boolean removeParticipant(Event event, User user) {
+        if (event.getParticipants() == null || !event.getParticipants().remove(user)) {
+            return false;
+        }
+        changeLogService.recordEvent(event, ChangeOperation.DELETE, List.of(user.getId()));
+        changeLogService.recordEvent(event, ChangeOperation.UPSERT);
+        notifyUserRemovedFromEvent(user, event, user.getDeviceToken());
+        eventRepository.save(event);
+        return true;
+    }
 
-    public void notifyInvitees(Event event) {
-        if (event.getInvitees() == null || event.getInvitees().isEmpty()) return;
 
-        String subject = "[TimeTamer SmartCalendar] Event invitation: " + event.getTitle();
-        String text = buildEventNotificationText(
-                "You have been invited to the event:",
-                event,
-                event.getOrganizer()
-        );
+    public void notifyInvitees(Event event, Collection<String> invitees) {
+        if (invitees.isEmpty()) return;
 
-        for (String email : event.getInvitees()) {
-            Optional<User> userOpt = findByEmail(email);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                notificationService.sendEmail(user.getEmail(), subject, text);
-                if (user.getDeviceToken() != null && !user.getDeviceToken().isBlank()) {
-                    notificationService.sendPush(user.getDeviceToken(), "Invitation", text);
-                }
-            } else {
-                notificationService.sendEmail(email, subject, text);
+        RenderedNotification notification = notificationTemplates.render(NotificationType.EVENT_INVITATION, event);
+        Map<String, User> users = userRepository.findByEmailIn(invitees).stream()
+                .collect(Collectors.toMap(User::getEmail, user -> user, (a, b) -> a));
+        List<String> deviceTokens = new ArrayList<>();
+        for (String email : invitees) {
+            User user = users.get(email);
+            if (user != null) {
+                deviceTokens.add(user.getDeviceToken());
             }
         }
+        notificationService.send(notification, invitees, deviceTokens);
     }
 
     public Optional<User> findByLoginOrEmail(String loginOrEmail) {
@@ -394,45 +566,118 @@ public class UserService {
 
     @Transactional
     public Event saveEvent(Event event) {
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        changeLogService.recordEvent(saved, ChangeOperation.UPSERT);
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public ChangeSet findChangesSince(Long userId, String since, int limit) {
+        if (since == null) {
+            long token = changeLogService.currentToken();
+            List<EventDto> events = findEventsByUserId(userId).stream()
+                    .map(this::toEventDto)
+                    .toList();
+            return new ChangeSet(findTasksByUserId(userId), events, List.of(), List.of(), true, String.valueOf(token), false, true);
+        }
+        long afterVersion = Long.parseLong(since);
+        if (afterVersion < 0) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+
+        List<ChangeLogEntry> entries = changeLogService.findSince(userId, afterVersion, limit + 1);
+        // Read after the entries: the purge point moves before rows are deleted, so a gap always shows up here
+        if (afterVersion < changeLogService.purgedThrough()) {
+            return findChangesSince(userId, null, limit);
+        }
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) {
+            entries = entries.subList(0, limit);
+        }
+
+        Map<UUID, ChangeOperation> taskChanges = new HashMap<>();
+        Map<UUID, ChangeOperation> eventChanges = new HashMap<>();
+        boolean statisticsChanged = false;
+        for (ChangeLogEntry entry : entries) {
+            switch (entry.getEntityType()) {
+                case TASK -> taskChanges.put(entry.getEntityId(), entry.getOperation());
+                case EVENT -> eventChanges.put(entry.getEntityId(), entry.getOperation());
+                case STATISTICS -> statisticsChanged = true;
+            }
+        }
+
+        Set<UUID> deletedTaskIds = new HashSet<>(taskChanges.keySet());
+        List<Task> tasks = taskRepository.findAllById(upserted(taskChanges)).stream()
+                .filter(task -> task.getUser() != null && task.getUser().getId().equals(userId))
+                .toList();
+        tasks.forEach(task -> deletedTaskIds.remove(task.getId()));
+
+        Set<UUID> deletedEventIds = new HashSet<>(eventChanges.keySet());
+        List<EventDto> events = eventRepository.findAllById(upserted(eventChanges)).stream()
+                .filter(event -> isVisibleTo(event, userId))
+                .map(this::toEventDto)
+                .toList();
+        events.forEach(event -> deletedEventIds.remove(event.getId()));
+
+        String token = entries.isEmpty() ? since : String.valueOf(entries.get(entries.size() - 1).getVersion());
+        return new ChangeSet(tasks, events, new ArrayList<>(deletedTaskIds), new ArrayList<>(deletedEventIds),
+                statisticsChanged, token, hasMore, false);
+    }
+
+    // Highest change-log version the user can see; any task, event or statistics change raises it
+    @Transactional(readOnly = true)
+    public long getCalendarVersion(Long userId) {
+        return changeLogService.latestVersion(userId);
+    }
+
+    private static Set<UUID> upserted(Map<UUID, ChangeOperation> changes) {
+        return changes.entrySet().stream()
+                .filter(change -> change.getValue() == ChangeOperation.UPSERT)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    private static boolean isVisibleTo(Event event, Long userId) {
+        if (event.getOrganizer() != null && event.getOrganizer().getId().equals(userId)) {
+            return true;
+        }
+        return event.getParticipants() != null
+                && event.getParticipants().stream().anyMatch(user -> user.getId().equals(userId));
     }
 
     public void notifyEventDeleted(Event event) {
-        String subject = "[TimeTamer SmartCalendar] Event \"" + event.getTitle() + "\" has been deleted";
-        String text = buildEventNotificationText(
-                "The event has been deleted:",
-                event,
-                event.getOrganizer()
-        );
-        notifyAllEventUsers(event, subject, text);
+        notifyAllEventUsers(event, notificationTemplates.render(NotificationType.EVENT_DELETED, event), false);
     }
 
-    public void notifyEventUpdated(Event oldEvent, Event newEvent) {
-        String subject = "[TimeTamer SmartCalendar] Event \"" + oldEvent.getTitle() + "\" has been updated";
-        String text = buildEventNotificationText(
-                "The event has been updated:",
-                newEvent,
-                oldEvent.getOrganizer()
-        );
-        notifyAllEventUsers(oldEvent, subject, text);
+    // previousTitle and organizer must be captured before the event is changed; the subject names the old title
+    public void notifyEventUpdated(Event event, String previousTitle, User organizer) {
+        notifyAllEventUsers(event, notificationTemplates.render(
+                NotificationType.EVENT_UPDATED, event, previousTitle, organizer), true);
     }
 
-    private void notifyAllEventUsers(Event event, String subject, String text) {
+    // Large events are paged from the join tables instead; a deleted event has to be fanned out before its rows go
+    private void notifyAllEventUsers(Event event, RenderedNotification notification, boolean eventRemains) {
+        String coalesceScope = "event:" + event.getId();
+        if (eventFanoutService.isLarge(event)) {
+            if (eventRemains) {
+                eventFanoutService.schedule(event, notification, coalesceScope);
+            } else {
+                eventFanoutService.fanOutNow(event, notification, coalesceScope);
+            }
+            return;
+        }
+        List<String> emails = new ArrayList<>();
+        List<String> deviceTokens = new ArrayList<>();
         if (event.getParticipants() != null) {
             for (User user : event.getParticipants()) {
                 if (!user.getId().equals(event.getOrganizer().getId())) {
-                    notificationService.sendEmail(user.getEmail(), subject, text);
-                    if (user.getDeviceToken() != null && !user.getDeviceToken().isBlank()) {
-                        notificationService.sendPush(user.getDeviceToken(), subject, text);
-                    }
+                    emails.add(user.getEmail());
+                    deviceTokens.add(user.getDeviceToken());
                 }
             }
         }
-        if (event.getInvitees() != null) {
-            for (String email : event.getInvitees()) {
-                notificationService.sendEmail(email, subject, text);
-            }
-        }
+        emails.addAll(event.getInvitees());
+        notificationService.send(notification, emails, deviceTokens, coalesceScope);
     }
 
     public EventDto toEventDto(Event event) {
@@ -445,6 +690,7 @@ public class UserService {
         dto.setLocation(event.getLocation());
         dto.setType(event.getType());
         dto.setCreationTime(event.getCreationTime());
+        dto.setUpdatedAt(event.getUpdatedAt());
         dto.setCompleted(event.isCompleted());
         dto.setShared(event.isShared());
         dto.setInvitees(event.getInvitees());
@@ -0,0 +1,103 @@
+package com.smartcalendar.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientConfigTest {
+
+    private final HttpClientConfig config = new HttpClientConfig();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final AtomicReference<String> acceptEncoding = new AtomicReference<>();
+    private HttpServer server;
+    private ConnectionProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/slow", exchange -> {
+            acceptEncoding.set(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(Long.parseLong(exchange.getRequestURI().getQuery()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            active.decrementAndGet();
+            byte[] reply = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, reply.length);
+            exchange.getResponseBody().write(reply);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        if (provider != null) {
+            provider.dispose();
+        }
+    }
+
+    private WebClient client(int maxConnections, int pendingAcquireMax, Duration responseTimeout) {
+        provider = config.outboundConnectionProvider(maxConnections, pendingAcquireMax, Duration.ofSeconds(5),
+                Duration.ofSeconds(30), Duration.ofMinutes(5));
+        return config.outboundWebClient(WebClient.builder(), config.outboundHttpClient(provider,
+                Duration.ofSeconds(2), responseTimeout, Duration.ofSeconds(5), true));
+    }
+
+    private Mono<String> get(WebClient client, long delayMillis) {
+        return client.get()
+                .uri("http://localhost:" + server.getAddress().getPort() + "/slow?" + delayMillis)
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+
+    @Test
+    void testPoolCapsConnectionsAndRejectsBeyondPendingQueue() {
+        WebClient client = client(1, 1, Duration.ofSeconds(5));
+
+        List<String> outcomes = Flux.range(0, 3)
+                .flatMap(i -> get(client, 300).onErrorResume(e -> Mono.just("rejected")), 3)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(2, outcomes.stream().filter("ok"::equals).count());
+        assertEquals(1, outcomes.stream().filter("rejected"::equals).count());
+        assertEquals(1, maxActive.get());
+    }
+
+    @Test
+    void testRequestsAcceptGzip() {
+        WebClient client = client(4, 10, Duration.ofSeconds(5));
+
+        assertEquals("ok", get(client, 0).block(Duration.ofSeconds(5)));
+        assertNotNull(acceptEncoding.get());
+        assertTrue(acceptEncoding.get().contains("gzip"));
+    }
+
+    @Test
+    void testSlowResponseTimesOut() {
+        WebClient client = client(4, 10, Duration.ofMillis(200));
+
+        assertThrows(RuntimeException.class, () -> get(client, 1000).block(Duration.ofSeconds(5)));
+    }
+}
@@ -1,5 +1,6 @@
 package com.smartcalendar.controller;
 
+import com.smartcalendar.exceptions.PayloadTooLargeException;
 import com.smartcalendar.service.AudioProcessingService;
 import com.smartcalendar.service.ChatGPTService;
 import org.junit.jupiter.api.Test;
@@ -14,16 +15,19 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest(properties = {
-        "JWT_SECRET=test_jwt_secret",
+        "JWT_SECRET=test_jwt_secret_that_is_long_enough_for_hs256",
         "chatgpt.api.url=http://dummy-url",
         "chatgpt.api.key=dummy-key",
         "spring.security.enabled=false"
@@ -59,12 +63,15 @@ class AudioControllerIntegrationTest {
         MockMultipartFile file = new MockMultipartFile("file", "audio.wav", "audio/wav", "dummy".getBytes());
 
         Mockito.when(audioProcessingService.transcribeAudio(any())).thenReturn("test transcript");
-        Mockito.when(chatGPTService.processTranscript(any())).thenReturn(
+        Mockito.when(chatGPTService.processTranscriptAsync(any())).thenReturn(Mono.just(
                 Map.of("events", List.of(Map.of("title", "Event1")), "tasks", List.of())
-        );
+        ));
         Mockito.when(chatGPTService.convertToEntities(any())).thenReturn(List.of());
 
-        mockMvc.perform(multipart("/api/audio/process").file(file))
+        MvcResult result = mockMvc.perform(multipart("/api/audio/process").file(file))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk());
     }
 
@@ -75,8 +82,23 @@ class AudioControllerIntegrationTest {
 
         Mockito.when(audioProcessingService.transcribeAudio(any())).thenThrow(new RuntimeException("Transcribe error"));
 
-        mockMvc.perform(multipart("/api/audio/process").file(file))
+        MvcResult result = mockMvc.perform(multipart("/api/audio/process").file(file))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").exists());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser
+    void testProcessAudio_RejectsUnsplittableLargeUpload() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "audio.mp3", "audio/mpeg", "dummy".getBytes());
+
+        Mockito.when(audioProcessingService.transcribeAudio(any()))
+                .thenThrow(new PayloadTooLargeException("Audio is larger than 25MB and cannot be split"));
+
+        mockMvc.perform(multipart("/api/audio/process").file(file))
+                .andExpect(status().isPayloadTooLarge());
+    }
+}
@@ -123,7 +123,7 @@ public class AuthControllerTest {
         when(authenticationManager.authenticate(any()))
                 .thenReturn(auth);
 
-        when(jwtService.generateToken(testUser.getUsername()))
+        when(jwtService.generateToken(eq(testUser.getUsername()), any()))
                 .thenReturn("mocked.jwt.token");
 
         mockMvc.perform(post("/api/auth/login")
@@ -12,16 +12,21 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest(properties = {
-        "JWT_SECRET=test_jwt_secret",
+        "JWT_SECRET=test_jwt_secret_that_is_long_enough_for_hs256",
         "chatgpt.api.url=http://dummy-url",
         "chatgpt.api.key=dummy-key",
         "spring.security.enabled=false"
@@ -47,23 +52,63 @@ class ChatGPTControllerIntegrationTest {
     @Test
     @WithMockUser
     void testAskChatGPT() throws Exception {
-        Mockito.when(chatGPTService.askChatGPT(any(), any())).thenReturn("response");
-        mockMvc.perform(post("/api/chatgpt/ask")
+        Mockito.when(chatGPTService.askChatGPTAsync(any(), any())).thenReturn(Mono.just("response"));
+        MvcResult result = mockMvc.perform(post("/api/chatgpt/ask")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"question\":\"test?\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().string("response"));
     }
 
+    @Test
+    @WithMockUser
+    void testStreamChatGPT() throws Exception {
+        Mockito.when(chatGPTService.streamChatGPT(any(), any())).thenReturn(Flux.just("Hel", "lo"));
+        MvcResult result = mockMvc.perform(post("/api/chatgpt/ask/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content("{\"question\":\"test?\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("data:{\"t\":\"Hel\"}\n")))
+                .andExpect(content().string(containsString("data:{\"t\":\"lo\"}\n")))
+                .andExpect(content().string(containsString("event:done")));
+    }
+
+    @Test
+    @WithMockUser
+    void testStreamChatGPT_KeepsWhitespaceTokens() throws Exception {
+        Mockito.when(chatGPTService.streamChatGPT(any(), any())).thenReturn(Flux.just("Hello", " world", "\n\n"));
+        MvcResult result = mockMvc.perform(post("/api/chatgpt/ask/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content("{\"question\":\"test?\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("data:{\"t\":\" world\"}\n")))
+                .andExpect(content().string(containsString("data:{\"t\":\"\\n\\n\"}\n")));
+    }
+
     @Test
     @WithMockUser
     void testGenerateEventsAndTasks() throws Exception {
-        Mockito.when(chatGPTService.generateEventsAndTasks(any())).thenReturn(
-                Map.of("events", List.of(), "tasks", List.of())
+        Mockito.when(chatGPTService.generateEventsAndTasksAsync(any())).thenReturn(
+                Mono.just(Map.of("events", List.of(), "tasks", List.of()))
         );
-        mockMvc.perform(post("/api/chatgpt/generate")
+        MvcResult result = mockMvc.perform(post("/api/chatgpt/generate")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"query\":\"test\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.events").exists())
                 .andExpect(jsonPath("$.tasks").exists());
@@ -72,10 +117,14 @@ class ChatGPTControllerIntegrationTest {
     @Test
     @WithMockUser
     void testGenerateEntities_Error() throws Exception {
-        Mockito.when(chatGPTService.processTranscript(any())).thenReturn(Map.of("error", "Unrelated request"));
-        mockMvc.perform(post("/api/chatgpt/generate/entities")
+        Mockito.when(chatGPTService.processTranscriptAsync(any()))
+                .thenReturn(Mono.just(Map.of("error", "Unrelated request")));
+        MvcResult result = mockMvc.perform(post("/api/chatgpt/generate/entities")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"query\":\"test\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").exists());
     }
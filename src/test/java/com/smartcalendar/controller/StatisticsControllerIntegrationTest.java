@@ -1,7 +1,7 @@
 package com.smartcalendar.controller;
 
 import com.smartcalendar.dto.*;
-import com.smartcalendar.model.User;
+import com.smartcalendar.security.WithUserPrincipal;
 import com.smartcalendar.service.StatisticsService;
 import com.smartcalendar.service.UserService;
 import org.junit.jupiter.api.Test;
@@ -15,20 +15,17 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Date;
-import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest(properties = {
-        "JWT_SECRET=test_jwt_secret"
+        "JWT_SECRET=test_jwt_secret_that_is_long_enough_for_hs256"
 })
 @ActiveProfiles("test")
 @AutoConfigureMockMvc
@@ -56,17 +53,9 @@ class StatisticsControllerIntegrationTest {
         }
     }
 
-    private void mockAuth() {
-        User user = new User();
-        user.setId(1L);
-        user.setUsername("testuser");
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
-    }
-
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetTotalTimeTaskTypes() throws Exception {
-        mockAuth();
         Mockito.when(statisticsService.getTotalTimeTaskTypes(any())).thenReturn(new TotalTimeTaskTypesDto(1,2,3,4));
         mockMvc.perform(get("/api/statistics/total-time-task-types"))
                 .andExpect(status().isOk())
@@ -74,9 +63,8 @@ class StatisticsControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetTodayTimeDto() throws Exception {
-        mockAuth();
         Mockito.when(statisticsService.getTodayTimeDto(any())).thenReturn(new TodayTimeDto(5,6));
         mockMvc.perform(get("/api/statistics/today"))
                 .andExpect(status().isOk())
@@ -84,9 +72,8 @@ class StatisticsControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetContinuesSuccessDaysDto() throws Exception {
-        mockAuth();
         Mockito.when(statisticsService.getContinuesSuccessDaysDto(any())).thenReturn(new ContinuesSuccessDaysDto(7,8));
         mockMvc.perform(get("/api/statistics/continuous-success-days"))
                 .andExpect(status().isOk())
@@ -94,9 +81,8 @@ class StatisticsControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetAverageDayTimeDto() throws Exception {
-        mockAuth();
         Mockito.when(statisticsService.getAverageDayTimeDto(any())).thenReturn(new AverageDayTimeDto(9, null));
         mockMvc.perform(get("/api/statistics/average-day-time"))
                 .andExpect(status().isOk())
@@ -104,9 +90,8 @@ class StatisticsControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetStatisticsWithJsonDate() throws Exception {
-        mockAuth();
         StatisticsData statisticsData = new StatisticsData(
                 new TotalTimeTaskTypesDto(1, 2, 3, 4),
                 5L,
@@ -1,14 +1,20 @@
 package com.smartcalendar.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcalendar.dto.BulkInviteResult;
+import com.smartcalendar.dto.ChangeSet;
 import com.smartcalendar.dto.DailyTaskDto;
 import com.smartcalendar.dto.EventDto;
+import com.smartcalendar.dto.KeysetPage;
 import com.smartcalendar.dto.StatisticsData;
 import com.smartcalendar.dto.UserShortDto;
 import com.smartcalendar.model.Event;
 import com.smartcalendar.model.EventType;
+import com.smartcalendar.model.Invitation;
 import com.smartcalendar.model.Task;
 import com.smartcalendar.model.User;
+import com.smartcalendar.security.UserPrincipal;
+import com.smartcalendar.security.WithUserPrincipal;
 import com.smartcalendar.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -19,21 +25,23 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
-import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest(properties = {
-        "JWT_SECRET=test_jwt_secret",
+        "JWT_SECRET=test_jwt_secret_that_is_long_enough_for_hs256",
         "spring.security.enabled=false"
 })
 @ActiveProfiles("test")
@@ -69,7 +77,7 @@ class UserControllerIntegrationTest {
     // --- USERS ---
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetAllUsers() throws Exception {
         Mockito.when(userService.findAllUsers()).thenReturn(Collections.emptyList());
         mockMvc.perform(get("/api/users"))
@@ -77,7 +85,7 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetUserById() throws Exception {
         User user = mockUser(1L, "testuser");
         Mockito.when(userService.findUserById(1L)).thenReturn(user);
@@ -87,7 +95,7 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testCreateUser() throws Exception {
         User user = mockUser(2L, "newuser");
         Mockito.when(userService.createUser(any(User.class))).thenReturn(user);
@@ -107,7 +115,7 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testCreateUserWithExistingUsername() throws Exception {
         Mockito.when(userService.createUser(any(User.class)))
                 .thenThrow(new IllegalArgumentException("Username already exists"));
@@ -127,7 +135,7 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testCreateUserWithExistingEmail() throws Exception {
         Mockito.when(userService.createUser(any(User.class)))
                 .thenThrow(new IllegalArgumentException("Email already exists"));
@@ -149,10 +157,9 @@ class UserControllerIntegrationTest {
     // --- EMAIL ---
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testUpdateEmail() throws Exception {
         User user = mockUser(1L, "testuser");
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Mockito.when(userService.updateEmail(eq(1L), anyString())).thenReturn(user);
 
         mockMvc.perform(put("/api/users/1/email")
@@ -163,10 +170,8 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testUpdateEmail_Forbidden() throws Exception {
-        User user = mockUser(1L, "testuser");
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         mockMvc.perform(put("/api/users/2/email")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("\"newemail@example.com\""))
@@ -176,13 +181,12 @@ class UserControllerIntegrationTest {
     // --- TASKS ---
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetTasksByUserId() throws Exception {
         User user = mockUser(1L, "testuser");
         Task task = new Task();
         task.setId(UUID.randomUUID());
         task.setUser(user);
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Mockito.when(userService.findTasksByUserId(1L)).thenReturn(List.of(task));
 
         mockMvc.perform(get("/api/users/1/tasks"))
@@ -191,23 +195,34 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    void testGetTasksByUserId_TokenPrincipal() throws Exception {
+        Mockito.clearInvocations(userService);
+        Mockito.when(userService.findTasksByUserId(1L)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/users/1/tasks").with(user(new UserPrincipal(1L, "testuser"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/2/tasks").with(user(new UserPrincipal(1L, "testuser"))))
+                .andExpect(status().isForbidden());
+
+        Mockito.verify(userService, Mockito.never()).findByUsername(anyString());
+    }
+
+    @Test
+    @WithUserPrincipal
     void testGetTasksByUserId_Forbidden() throws Exception {
-        User user = mockUser(1L, "testuser");
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         mockMvc.perform(get("/api/users/2/tasks"))
                 .andExpect(status().isForbidden());
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testCreateTask() throws Exception {
         User user = mockUser(1L, "testuser");
         Task task = new Task();
         task.setId(UUID.randomUUID());
         task.setUser(user);
 
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
+        Mockito.when(userService.getUserReference(1L)).thenReturn(user);
         Mockito.when(userService.createTaskWithCustomId(any(Task.class))).thenReturn(task);
 
         String json = objectMapper.writeValueAsString(task);
@@ -219,10 +234,8 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testCreateTask_Forbidden() throws Exception {
-        User user = mockUser(1L, "testuser");
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Task task = new Task();
         String json = objectMapper.writeValueAsString(task);
         mockMvc.perform(post("/api/users/2/tasks")
@@ -232,16 +245,14 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetTaskDescription_Forbidden() throws Exception {
-        User user = mockUser(1L, "testuser");
         Task task = new Task();
         task.setId(UUID.randomUUID());
         User otherUser = mockUser(2L, "otheruser");
         task.setUser(otherUser);
 
         Mockito.when(userService.getTaskById(any(UUID.class))).thenReturn(task);
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
 
         mockMvc.perform(get("/api/users/tasks/" + task.getId() + "/description"))
                 .andExpect(status().isForbidden());
@@ -250,7 +261,7 @@ class UserControllerIntegrationTest {
     // --- EVENTS ---
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetEventsByUserId() throws Exception {
         User user = mockUser(1L, "testuser");
         Event event = new Event();
@@ -262,7 +273,6 @@ class UserControllerIntegrationTest {
         eventDto.setTitle("Test Event");
         eventDto.setOrganizer(new UserShortDto(user.getUsername(), user.getEmail()));
 
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Mockito.when(userService.findEventsByUserId(1L)).thenReturn(List.of(event));
         Mockito.when(userService.toEventDto(event)).thenReturn(eventDto);
 
@@ -273,23 +283,147 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
+    void testGetEventsByUserId_InWindow() throws Exception {
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        EventDto eventDto = new EventDto();
+        eventDto.setId(event.getId());
+        LocalDateTime from = LocalDateTime.of(2025, 6, 2, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+
+        Mockito.when(userService.findEventsByUserIdBetween(1L, from, to)).thenReturn(List.of(event));
+        Mockito.when(userService.toEventDto(event)).thenReturn(eventDto);
+
+        mockMvc.perform(get("/api/users/1/events")
+                        .param("from", "2025-06-02T00:00:00")
+                        .param("to", "2025-06-09T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(event.getId().toString()));
+        Mockito.verify(userService, Mockito.never()).findEventsByUserId(1L);
+    }
+
+    @Test
+    @WithUserPrincipal
+    void testGetEventsByUserId_InvalidWindow() throws Exception {
+
+        mockMvc.perform(get("/api/users/1/events")
+                        .param("from", "2025-06-09T00:00:00"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/1/events/dailytasks")
+                        .param("from", "2025-06-09T00:00:00")
+                        .param("to", "2025-06-02T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithUserPrincipal
+    void testGetEventsPage() throws Exception {
+        EventDto eventDto = new EventDto();
+        eventDto.setId(UUID.randomUUID());
+        Mockito.when(userService.findEventsPage(1L, null, 20)).thenReturn(new KeysetPage<>(List.of(eventDto), "next"));
+
+        mockMvc.perform(get("/api/users/1/events/page").param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(eventDto.getId().toString()))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    @WithUserPrincipal
+    void testGetTasksPage_InvalidCursor() throws Exception {
+        Mockito.when(userService.findTasksPage(1L, "broken", 50)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/users/1/tasks/page").param("cursor", "broken"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/1/tasks/page").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithUserPrincipal
+    void testGetEventsByUserId_NotModified() throws Exception {
+        Mockito.when(userService.getCalendarVersion(1L)).thenReturn(42L);
+        Mockito.clearInvocations(userService);
+
+        mockMvc.perform(get("/api/users/1/events").header("If-None-Match", "\"1-42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-42\""));
+        mockMvc.perform(get("/api/users/1/tasks").header("If-None-Match", "\"1-42\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/users/1/statistics").header("If-None-Match", "\"1-42\""))
+                .andExpect(status().isNotModified());
+
+        Mockito.verify(userService, Mockito.never()).findEventsByUserId(anyLong());
+        Mockito.verify(userService, Mockito.never()).findTasksByUserId(anyLong());
+        Mockito.verify(userService, Mockito.never()).getStatistics(anyLong());
+    }
+
+    @Test
+    @WithUserPrincipal
+    void testGetEventsByUserId_ModifiedReturnsNewEtag() throws Exception {
+        Mockito.when(userService.getCalendarVersion(1L)).thenReturn(43L);
+        Mockito.when(userService.findEventsByUserId(1L)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/users/1/events").header("If-None-Match", "\"1-42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-43\""));
+    }
+
+    @Test
+    @WithUserPrincipal
+    void testGetChanges() throws Exception {
+        UUID deletedId = UUID.randomUUID();
+        Mockito.when(userService.findChangesSince(1L, "7", 500))
+                .thenReturn(new ChangeSet(List.of(), List.of(), List.of(deletedId), List.of(), false, "9", false, false));
+        Mockito.when(userService.findChangesSince(1L, "broken", 500))
+                .thenThrow(new NumberFormatException("broken"));
+
+        mockMvc.perform(get("/api/users/1/changes").param("since", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deletedTaskIds[0]").value(deletedId.toString()))
+                .andExpect(jsonPath("$.syncToken").value("9"));
+        mockMvc.perform(get("/api/users/1/changes").param("since", "broken"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/2/changes").param("since", "7"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithUserPrincipal
+    void testStreamEventsByUserId() throws Exception {
+        EventDto eventDto = new EventDto();
+        eventDto.setId(UUID.randomUUID());
+        Mockito.doAnswer(invocation -> {
+            Consumer<EventDto> action = invocation.getArgument(1);
+            action.accept(eventDto);
+            return null;
+        }).when(userService).forEachEventDto(eq(1L), any());
+
+        MvcResult result = mockMvc.perform(get("/api/users/1/events/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(eventDto.getId().toString()));
+    }
+
+    @Test
+    @WithUserPrincipal
     void testGetEventsByUserId_Forbidden() throws Exception {
-        User user = mockUser(1L, "testuser");
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         mockMvc.perform(get("/api/users/2/events"))
                 .andExpect(status().isForbidden());
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testCreateEvent() throws Exception {
         User user = mockUser(1L, "testuser");
         Event event = new Event();
         event.setId(UUID.randomUUID());
         event.setOrganizer(user);
 
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
+        Mockito.when(userService.getUserReference(1L)).thenReturn(user);
         Mockito.when(userService.createEventWithCustomId(any(Event.class))).thenReturn(event);
 
         String json = objectMapper.writeValueAsString(event);
@@ -301,10 +435,8 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testCreateEvent_Forbidden() throws Exception {
-        User user = mockUser(1L, "testuser");
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Event event = new Event();
         String json = objectMapper.writeValueAsString(event);
         mockMvc.perform(post("/api/users/2/events")
@@ -316,7 +448,7 @@ class UserControllerIntegrationTest {
     // --- COLLABORATIVE EVENTS ---
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testInviteUserToEvent_UserAlreadyParticipant() throws Exception {
         User user = mockUser(1L, "testuser");
         Event event = new Event();
@@ -333,12 +465,12 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testInviteUserToEvent_UserAlreadyInvited() throws Exception {
         User user = mockUser(1L, "testuser");
         Event event = new Event();
         event.setId(UUID.randomUUID());
-        event.setInvitees(new ArrayList<>(List.of(user.getEmail())));
+        event.getInvitations().add(new Invitation(event, user.getEmail()));
         Mockito.when(userService.getEventById(event.getId())).thenReturn(event);
         Mockito.when(userService.findByLoginOrEmail("testuser")).thenReturn(Optional.of(user));
 
@@ -350,7 +482,7 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testInviteUserToEvent_UserNotFound() throws Exception {
         Event event = new Event();
         event.setId(UUID.randomUUID());
@@ -365,13 +497,49 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
+    void testInviteUsersToEvent_Bulk() throws Exception {
+        User organizer = mockUser(1L, "testuser");
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        event.setOrganizer(organizer);
+        Mockito.when(userService.getEventById(event.getId())).thenReturn(event);
+        BulkInviteResult result = new BulkInviteResult();
+        result.getInvited().add("alice");
+        result.getNotFound().add("nobody@example.com");
+        Mockito.when(userService.inviteAll(event, List.of("alice", "nobody@example.com"))).thenReturn(result);
+
+        mockMvc.perform(post("/api/users/events/" + event.getId() + "/invite/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"loginsOrEmails\":[\"alice\",\"nobody@example.com\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.invited[0]").value("alice"))
+                .andExpect(jsonPath("$.notFound[0]").value("nobody@example.com"));
+    }
+
+    @Test
+    @WithUserPrincipal(id = 2L, username = "other")
+    void testInviteUsersToEvent_Bulk_NotOrganizer() throws Exception {
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        event.setOrganizer(mockUser(1L, "testuser"));
+        Mockito.when(userService.getEventById(event.getId())).thenReturn(event);
+
+        mockMvc.perform(post("/api/users/events/" + event.getId() + "/invite/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"loginsOrEmails\":[\"alice\"]}"))
+                .andExpect(status().isForbidden());
+        Mockito.verify(userService, Mockito.never()).inviteAll(any(), any());
+    }
+
+    @Test
+    @WithUserPrincipal
     void testAcceptInvite_NoInvite() throws Exception {
         User user = mockUser(1L, "testuser");
         Event event = new Event();
         event.setId(UUID.randomUUID());
-        event.setInvitees(new ArrayList<>());
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
+        event.setInvitations(new ArrayList<>());
+        Mockito.when(userService.findUserById(1L)).thenReturn(user);
         Mockito.when(userService.getEventById(event.getId())).thenReturn(event);
 
         mockMvc.perform(post("/api/users/events/" + event.getId() + "/accept-invite"))
@@ -380,14 +548,12 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testRemoveParticipant_NotOrganizer() throws Exception {
-        User user = mockUser(1L, "testuser");
         User other = mockUser(2L, "other");
         Event event = new Event();
         event.setId(UUID.randomUUID());
         event.setOrganizer(other);
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Mockito.when(userService.getEventById(event.getId())).thenReturn(event);
 
         mockMvc.perform(post("/api/users/events/" + event.getId() + "/remove-participant")
@@ -398,13 +564,12 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testRemoveParticipant_OrganizerCannotBeRemoved() throws Exception {
         User user = mockUser(1L, "testuser");
         Event event = new Event();
         event.setId(UUID.randomUUID());
         event.setOrganizer(user);
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Mockito.when(userService.getEventById(event.getId())).thenReturn(event);
         Mockito.when(userService.findByLoginOrEmail("testuser")).thenReturn(Optional.of(user));
 
@@ -416,13 +581,12 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testRemoveParticipant_UserNotFound() throws Exception {
         User user = mockUser(1L, "testuser");
         Event event = new Event();
         event.setId(UUID.randomUUID());
         event.setOrganizer(user);
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Mockito.when(userService.getEventById(event.getId())).thenReturn(event);
         Mockito.when(userService.findByLoginOrEmail("nouser")).thenReturn(Optional.empty());
 
@@ -434,7 +598,7 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testRemoveParticipant_UserNotParticipant() throws Exception {
         User user = mockUser(1L, "testuser");
         User other = mockUser(2L, "other");
@@ -442,7 +606,6 @@ class UserControllerIntegrationTest {
         event.setId(UUID.randomUUID());
         event.setOrganizer(user);
         event.setParticipants(new ArrayList<>());
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Mockito.when(userService.getEventById(event.getId())).thenReturn(event);
         Mockito.when(userService.findByLoginOrEmail("other")).thenReturn(Optional.of(other));
 
@@ -456,11 +619,9 @@ class UserControllerIntegrationTest {
     // --- STATISTICS ---
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetStatistics() throws Exception {
-        User user = mockUser(1L, "testuser");
         StatisticsData statisticsData = new StatisticsData();
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Mockito.when(userService.getStatistics(1L)).thenReturn(statisticsData);
 
         mockMvc.perform(get("/api/users/1/statistics"))
@@ -469,20 +630,16 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetStatistics_Forbidden() throws Exception {
-        User user = mockUser(1L, "testuser");
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         mockMvc.perform(get("/api/users/2/statistics"))
                 .andExpect(status().isForbidden());
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testUpdateStatistics() throws Exception {
-        User user = mockUser(1L, "testuser");
         StatisticsData statisticsData = new StatisticsData();
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
 
         String json = objectMapper.writeValueAsString(statisticsData);
         mockMvc.perform(put("/api/users/1/statistics")
@@ -492,11 +649,9 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testUpdateStatistics_Forbidden() throws Exception {
-        User user = mockUser(1L, "testuser");
         StatisticsData statisticsData = new StatisticsData();
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
 
         String json = objectMapper.writeValueAsString(statisticsData);
         mockMvc.perform(put("/api/users/2/statistics")
@@ -508,10 +663,8 @@ class UserControllerIntegrationTest {
     // --- EDGE CASES ---
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetAllEventsAsDailyTasks_Empty() throws Exception {
-        User user = mockUser(1L, "testuser");
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Mockito.when(userService.findAllEventsAsDailyTaskDto(1L)).thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/api/users/1/events/dailytasks"))
@@ -520,10 +673,8 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetEventsByUserId_Empty() throws Exception {
-        User user = mockUser(1L, "testuser");
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Mockito.when(userService.findEventsByUserId(1L)).thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/api/users/1/events"))
@@ -532,10 +683,8 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @WithMockUser
+    @WithUserPrincipal
     void testGetTasksByUserId_Empty() throws Exception {
-        User user = mockUser(1L, "testuser");
-        Mockito.when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
         Mockito.when(userService.findTasksByUserId(1L)).thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/api/users/1/tasks"))
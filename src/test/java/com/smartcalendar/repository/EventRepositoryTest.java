@@ -0,0 +1,167 @@
+package com.smartcalendar.repository;
+
+import com.smartcalendar.dto.EventRecipient;
+import com.smartcalendar.dto.PageCursor;
+import com.smartcalendar.model.Event;
+import com.smartcalendar.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class EventRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    private User organizer;
+    private User participant;
+    private User stranger;
+
+    @BeforeEach
+    void setUp() {
+        organizer = persistUser("organizer");
+        participant = persistUser("participant");
+        stranger = persistUser("stranger");
+    }
+
+    private User persistUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        return entityManager.persist(user);
+    }
+
+    private Event persistEvent(String title, User owner, List<User> participants) {
+        return persistEvent(title, owner, participants, LocalDateTime.of(2025, 6, 1, 10, 0));
+    }
+
+    private Event persistEvent(String title, User owner, List<User> participants, LocalDateTime start) {
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        event.setTitle(title);
+        event.setStart(start);
+        event.setEnd(start.plusHours(1));
+        event.setOrganizer(owner);
+        event.setParticipants(new ArrayList<>(participants));
+        return entityManager.persist(event);
+    }
+
+    @Test
+    void testFindByOrganizerOrParticipant() {
+        Event organized = persistEvent("organized", organizer, List.of(organizer));
+        Event shared = persistEvent("shared", organizer, List.of(organizer, participant));
+        persistEvent("foreign", stranger, List.of(stranger));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Event> organizerEvents = eventRepository.findByOrganizerOrParticipant(organizer.getId());
+        List<Event> participantEvents = eventRepository.findByOrganizerOrParticipant(participant.getId());
+
+        assertEquals(2, organizerEvents.size());
+        assertTrue(organizerEvents.stream().anyMatch(e -> e.getId().equals(organized.getId())));
+        assertTrue(organizerEvents.stream().anyMatch(e -> e.getId().equals(shared.getId())));
+        assertEquals(1, participantEvents.size());
+        assertEquals(shared.getId(), participantEvents.get(0).getId());
+    }
+
+    @Test
+    void testFindByOrganizerOrParticipant_IgnoresUnrelatedEvents() {
+        Event shared = persistEvent("shared", organizer, List.of(organizer, participant));
+        for (int i = 0; i < 500; i++) {
+            persistEvent("foreign " + i, stranger, List.of(stranger, organizer));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Event> participantEvents = eventRepository.findByOrganizerOrParticipant(participant.getId());
+
+        assertEquals(1, participantEvents.size());
+        assertEquals(shared.getId(), participantEvents.get(0).getId());
+    }
+
+    @Test
+    void testFindByOrganizerOrParticipantBetween() {
+        LocalDateTime monday = LocalDateTime.of(2025, 6, 2, 0, 0);
+        Event inWindow = persistEvent("in window", organizer, List.of(organizer), monday.plusDays(1));
+        Event sharedInWindow = persistEvent("shared in window", stranger, List.of(stranger, organizer), monday.plusDays(2));
+        persistEvent("last week", organizer, List.of(organizer), monday.minusDays(3));
+        persistEvent("next week", organizer, List.of(organizer), monday.plusDays(7));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Event> events = eventRepository.findByOrganizerOrParticipantBetween(
+                organizer.getId(), monday, monday.plusDays(7));
+
+        assertEquals(2, events.size());
+        assertEquals(inWindow.getId(), events.get(0).getId());
+        assertEquals(sharedInWindow.getId(), events.get(1).getId());
+    }
+
+    @Test
+    void testFindParticipantRecipients_PagesByKeysetWithoutOrganizer() {
+        User other = persistUser("other");
+        other.setDeviceToken("device-other");
+        Event shared = persistEvent("shared", organizer, List.of(organizer, participant, other, stranger));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<EventRecipient> first = eventRepository.findParticipantRecipients(
+                shared.getId(), organizer.getId(), 0L, PageRequest.ofSize(2));
+        List<EventRecipient> second = eventRepository.findParticipantRecipients(
+                shared.getId(), organizer.getId(), first.get(1).id(), PageRequest.ofSize(2));
+
+        assertEquals(List.of(participant.getId(), stranger.getId()), first.stream().map(EventRecipient::id).toList());
+        assertEquals(1, second.size());
+        assertEquals("device-other", second.get(0).deviceToken());
+        assertEquals(3, eventRepository.countParticipantsExcluding(shared.getId(), organizer.getId()));
+    }
+
+    @Test
+    void testFindPageByOrganizerOrParticipant_PagesDatedThenUndatedEvents() {
+        Event early = persistEvent("early", organizer, List.of(organizer), LocalDateTime.of(2025, 6, 1, 9, 0));
+        Event late = persistEvent("late", organizer, List.of(organizer), LocalDateTime.of(2025, 6, 2, 9, 0));
+        Event undated = persistEvent("undated", organizer, List.of(organizer));
+        undated.setStart(null);
+        undated.setEnd(null);
+        Event otherUndated = persistEvent("other undated", organizer, List.of(organizer));
+        otherUndated.setStart(null);
+        otherUndated.setEnd(null);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Event> first = eventRepository.findPageByOrganizerOrParticipant(organizer.getId(), PageRequest.ofSize(10));
+        assertEquals(List.of(early.getId(), late.getId()), first.stream().map(Event::getId).toList());
+        assertTrue(eventRepository.findPageByOrganizerOrParticipantAfter(organizer.getId(),
+                late.getStart(), late.getId(), PageRequest.ofSize(10)).isEmpty());
+
+        List<UUID> undatedIds = new ArrayList<>();
+        List<Event> page = eventRepository.findUndatedPageByOrganizerOrParticipant(
+                organizer.getId(), PageRequest.ofSize(1));
+        while (!page.isEmpty()) {
+            Event last = page.get(0);
+            undatedIds.add(last.getId());
+            PageCursor cursor = PageCursor.decode(new PageCursor(last.getStart(), last.getId()).encode());
+            assertNull(cursor.getPosition());
+            page = eventRepository.findUndatedPageByOrganizerOrParticipantAfter(
+                    organizer.getId(), cursor.getId(), PageRequest.ofSize(1));
+        }
+
+        assertEquals(2, undatedIds.size());
+        assertTrue(undatedIds.containsAll(List.of(undated.getId(), otherUndated.getId())));
+    }
+}
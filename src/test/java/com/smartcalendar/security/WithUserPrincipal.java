@@ -0,0 +1,20 @@
+package com.smartcalendar.security;
+
+import org.springframework.security.test.context.support.WithSecurityContext;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a test as if the JWT filter had authenticated the given user.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@WithSecurityContext(factory = WithUserPrincipalSecurityContextFactory.class)
+public @interface WithUserPrincipal {
+    long id() default 1L;
+
+    String username() default "testuser";
+}
@@ -0,0 +1,17 @@
+package com.smartcalendar.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithSecurityContextFactory;
+
+public class WithUserPrincipalSecurityContextFactory implements WithSecurityContextFactory<WithUserPrincipal> {
+
+    @Override
+    public SecurityContext createSecurityContext(WithUserPrincipal annotation) {
+        UserPrincipal principal = new UserPrincipal(annotation.id(), annotation.username());
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        return context;
+    }
+}
@@ -0,0 +1,107 @@
+package com.smartcalendar.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioSegmenterTest {
+
+    private static final float RATE = 8000f;
+    private static final AudioFormat FORMAT = new AudioFormat(RATE, 16, 1, true, false);
+
+    private final AudioSegmenter segmenter = new AudioSegmenter(
+            Duration.ofSeconds(5), Duration.ofSeconds(2), Duration.ofMillis(50), 0.02);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSplit_CutsInsideSilenceAndKeepsOrder() throws Exception {
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        tone(pcm, 3.0, 0.5);
+        silence(pcm, 0.5);
+        tone(pcm, 3.0, 0.5);
+        silence(pcm, 0.5);
+        tone(pcm, 3.0, 0.5);
+        Path source = writeWav(pcm.toByteArray());
+
+        List<Path> segments = segmenter.split(source, tempDir);
+
+        assertEquals(3, segments.size());
+        List<Double> durations = new ArrayList<>();
+        for (Path segment : segments) {
+            durations.add(seconds(segment));
+        }
+        assertEquals(3.25, durations.get(0), 0.05);
+        assertEquals(3.5, durations.get(1), 0.05);
+        assertEquals(3.25, durations.get(2), 0.05);
+        assertEquals(10.0, durations.stream().mapToDouble(Double::doubleValue).sum(), 0.001);
+        assertTrue(segments.get(0).getFileName().toString().compareTo(segments.get(1).getFileName().toString()) < 0);
+    }
+
+    @Test
+    void testSplit_WithoutSilenceCutsNearMaxSegment() throws Exception {
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        tone(pcm, 12.0, 0.5);
+        Path source = writeWav(pcm.toByteArray());
+
+        List<Path> segments = segmenter.split(source, tempDir);
+
+        assertEquals(3, segments.size());
+        for (Path segment : segments) {
+            assertTrue(seconds(segment) <= 5.0);
+        }
+        assertEquals(12.0, seconds(segments.get(0)) + seconds(segments.get(1)) + seconds(segments.get(2)), 0.001);
+    }
+
+    @Test
+    void testSplit_ShortOrUnsupportedInputIsReturnedWhole() throws Exception {
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        tone(pcm, 4.0, 0.5);
+        Path shortWav = writeWav(pcm.toByteArray());
+        Path mp3 = Files.write(tempDir.resolve("upload.mp3"), new byte[]{(byte) 0xff, (byte) 0xfb, 0x10, 0x00});
+
+        assertEquals(List.of(shortWav), segmenter.split(shortWav, tempDir));
+        assertEquals(List.of(mp3), segmenter.split(mp3, tempDir));
+    }
+
+    private static void tone(ByteArrayOutputStream out, double seconds, double amplitude) {
+        int samples = (int) (seconds * RATE);
+        for (int i = 0; i < samples; i++) {
+            short value = (short) (Math.sin(2 * Math.PI * 440 * i / RATE) * amplitude * Short.MAX_VALUE);
+            out.write(value & 0xff);
+            out.write((value >> 8) & 0xff);
+        }
+    }
+
+    private static void silence(ByteArrayOutputStream out, double seconds) {
+        out.writeBytes(new byte[(int) (seconds * RATE) * 2]);
+    }
+
+    private Path writeWav(byte[] pcm) throws Exception {
+        Path target = tempDir.resolve("upload.wav");
+        try (AudioInputStream in = new AudioInputStream(new ByteArrayInputStream(pcm), FORMAT, pcm.length / 2)) {
+            AudioSystem.write(in, AudioFileFormat.Type.WAVE, target.toFile());
+        }
+        return target;
+    }
+
+    private static double seconds(Path wav) throws Exception {
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(wav.toFile())) {
+            return in.getFrameLength() / RATE;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.smartcalendar.service;
+
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchingMailDispatcherTest {
+
+    private BatchingMailDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    private static SimpleMailMessage message(int i) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo("user" + i + "@example.com");
+        message.setSubject("Subject " + i);
+        message.setText("Body " + i);
+        return message;
+    }
+
+    @Test
+    void testSend_ReusesSessionsForBatches() {
+        SmtpStandIn smtp = new SmtpStandIn(Duration.ofMillis(50));
+        dispatcher = new BatchingMailDispatcher(smtp, Duration.ofMillis(100), 50, 4, 1000);
+        dispatcher.start();
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(dispatcher.send(message(i)));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertEquals(200, smtp.delivered.get());
+        assertTrue(smtp.sessions.get() <= 8, "expected batched sessions but got " + smtp.sessions.get());
+        assertTrue(smtp.maxConcurrentSessions.get() <= 4);
+    }
+
+    @Test
+    void testSend_ReportsPerMessageFailures() {
+        SimpleMailMessage good = message(1);
+        SimpleMailMessage bad = message(2);
+        SmtpStandIn smtp = new SmtpStandIn(Duration.ZERO);
+        smtp.rejected = bad;
+        dispatcher = new BatchingMailDispatcher(smtp, Duration.ofMillis(100), 50, 1, 100);
+        dispatcher.start();
+
+        CompletableFuture<Void> goodResult = dispatcher.send(good);
+        CompletableFuture<Void> badResult = dispatcher.send(bad);
+
+        assertDoesNotThrow(() -> goodResult.orTimeout(5, TimeUnit.SECONDS).join());
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> badResult.orTimeout(5, TimeUnit.SECONDS).join());
+        assertEquals("mailbox unavailable", error.getCause().getMessage());
+    }
+
+    @Test
+    void testSend_RejectsWhenStopped() throws InterruptedException {
+        dispatcher = new BatchingMailDispatcher(new SmtpStandIn(Duration.ZERO), Duration.ofMillis(10), 10, 1, 10);
+        dispatcher.start();
+        dispatcher.stop();
+
+        CompletableFuture<Void> result = dispatcher.send(message(1));
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    private static class SmtpStandIn implements JavaMailSender {
+        private final Duration handshake;
+        private final AtomicInteger sessions = new AtomicInteger();
+        private final AtomicInteger delivered = new AtomicInteger();
+        private final AtomicInteger openSessions = new AtomicInteger();
+        private final AtomicInteger maxConcurrentSessions = new AtomicInteger();
+        private volatile SimpleMailMessage rejected;
+
+        SmtpStandIn(Duration handshake) {
+            this.handshake = handshake;
+        }
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            sessions.incrementAndGet();
+            maxConcurrentSessions.accumulateAndGet(openSessions.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(handshake.toMillis());
+                Map<Object, Exception> failed = new LinkedHashMap<>();
+                for (SimpleMailMessage message : simpleMessages) {
+                    if (message == rejected) {
+                        failed.put(message, new IllegalStateException("mailbox unavailable"));
+                    } else {
+                        delivered.incrementAndGet();
+                    }
+                }
+                if (!failed.isEmpty()) {
+                    throw new MailSendException(failed);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                openSessions.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void send(SimpleMailMessage simpleMessage) {
+            send(new SimpleMailMessage[]{simpleMessage});
+        }
+
+        @Override
+        public MimeMessage createMimeMessage() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MimeMessage createMimeMessage(InputStream contentStream) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void send(MimeMessage... mimeMessages) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void send(MimeMessage mimeMessage) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void send(MimeMessagePreparator mimeMessagePreparator) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void send(MimeMessagePreparator... mimeMessagePreparators) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
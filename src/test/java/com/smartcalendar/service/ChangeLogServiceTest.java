@@ -0,0 +1,184 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.model.ChangeEntityType;
+import com.smartcalendar.model.ChangeLogClock;
+import com.smartcalendar.model.ChangeLogEntry;
+import com.smartcalendar.model.ChangeOperation;
+import com.smartcalendar.model.Event;
+import com.smartcalendar.model.Task;
+import com.smartcalendar.model.User;
+import com.smartcalendar.repository.ChangeLogClockRepository;
+import com.smartcalendar.repository.ChangeLogRepository;
+import com.smartcalendar.repository.EventRepository;
+import com.smartcalendar.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Entries are written just before commit, so these tests commit for real instead of rolling back
+@DataJpaTest
+@Import(ChangeLogService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChangeLogServiceTest {
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private ChangeLogClockRepository clockRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private User organizer;
+    private User participant;
+    private User stranger;
+    private Event event;
+    private long start;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        organizer = userRepository.save(user("organizer"));
+        participant = userRepository.save(user("participant"));
+        stranger = userRepository.save(user("stranger"));
+        Event shared = new Event();
+        shared.setId(UUID.randomUUID());
+        shared.setTitle("Standup");
+        shared.setStart(LocalDateTime.of(2025, 6, 1, 10, 0));
+        shared.setEnd(LocalDateTime.of(2025, 6, 1, 11, 0));
+        shared.setOrganizer(organizer);
+        shared.setParticipants(new ArrayList<>(List.of(organizer, participant)));
+        event = eventRepository.save(shared);
+        start = changeLogService.currentToken();
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeLogRepository.deleteAll();
+        ChangeLogClock clock = clockRepository.findById(ChangeLogClock.ID).orElseThrow();
+        clock.setPurgedThrough(0);
+        clockRepository.save(clock);
+        eventRepository.deleteAll(eventRepository.findAllById(List.of(event.getId())));
+        userRepository.deleteAll(List.of(organizer, participant, stranger));
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        return user;
+    }
+
+    @Test
+    void testRecordEvent_WritesOneEntryForTheWholeAudience() {
+        transaction.executeWithoutResult(status -> changeLogService.recordEvent(event, ChangeOperation.UPSERT));
+
+        assertEquals(1, changeLogRepository.count());
+        assertEquals(start + 1, changeLogService.currentToken());
+        assertEquals(List.of(event.getId()), changeLogService.findSince(participant.getId(), start, 10).stream()
+                .map(ChangeLogEntry::getEntityId).toList());
+        assertEquals(1, changeLogService.findSince(organizer.getId(), start, 10).size());
+        assertTrue(changeLogService.findSince(stranger.getId(), start, 10).isEmpty());
+        assertEquals(start + 1, changeLogService.latestVersion(participant.getId()));
+        assertEquals(0, changeLogService.latestVersion(stranger.getId()));
+    }
+
+    @Test
+    void testRecord_CollapsesChangesWithinOneTransaction() {
+        Task task = new Task();
+        task.setId(UUID.randomUUID());
+        task.setUser(organizer);
+
+        transaction.executeWithoutResult(status -> {
+            changeLogService.recordTask(task, ChangeOperation.UPSERT);
+            changeLogService.recordStatistics(organizer.getId());
+            changeLogService.recordTask(task, ChangeOperation.DELETE);
+        });
+
+        List<ChangeLogEntry> entries = changeLogService.findSince(organizer.getId(), start, 10);
+        assertEquals(List.of(start + 1, start + 2), entries.stream().map(ChangeLogEntry::getVersion).toList());
+        assertEquals(List.of(ChangeEntityType.STATISTICS, ChangeEntityType.TASK),
+                entries.stream().map(ChangeLogEntry::getEntityType).toList());
+        assertEquals(ChangeOperation.DELETE, entries.get(1).getOperation());
+    }
+
+    @Test
+    void testRecordEvent_DeleteStillReachesFormerAudience() {
+        transaction.executeWithoutResult(status -> {
+            changeLogService.recordEvent(event, ChangeOperation.DELETE);
+            eventRepository.deleteById(event.getId());
+        });
+
+        List<ChangeLogEntry> entries = changeLogService.findSince(participant.getId(), start, 10);
+        assertEquals(1, entries.size());
+        assertEquals(ChangeOperation.DELETE, entries.get(0).getOperation());
+        assertEquals(1, changeLogService.findSince(organizer.getId(), start, 10).size());
+        assertTrue(changeLogService.findSince(stranger.getId(), start, 10).isEmpty());
+    }
+
+    @Test
+    void testFindSince_MergesUserAndEventEntriesByVersion() {
+        transaction.executeWithoutResult(status -> changeLogService.recordStatistics(participant.getId()));
+        transaction.executeWithoutResult(status -> changeLogService.recordEvent(event, ChangeOperation.UPSERT));
+        transaction.executeWithoutResult(status -> changeLogService.recordStatistics(participant.getId()));
+
+        List<ChangeLogEntry> entries = changeLogService.findSince(participant.getId(), start + 1, 1);
+
+        assertEquals(1, entries.size());
+        assertEquals(ChangeEntityType.EVENT, entries.get(0).getEntityType());
+        assertEquals(start + 2, entries.get(0).getVersion());
+    }
+
+    @Test
+    void testPurge_DropsOldEntriesAndMovesPurgePoint() {
+        transaction.executeWithoutResult(status -> changeLogService.recordStatistics(organizer.getId()));
+        transaction.executeWithoutResult(status -> changeLogService.recordEvent(event, ChangeOperation.UPSERT));
+        ChangeLogEntry old = changeLogService.findSince(organizer.getId(), start, 10).get(0);
+        old.setChangedAt(LocalDateTime.now().minusDays(31));
+        changeLogRepository.save(old);
+
+        changeLogService.purge();
+
+        assertEquals(start + 1, changeLogService.purgedThrough());
+        assertEquals(List.of(start + 2), changeLogService.findSince(organizer.getId(), start, 10).stream()
+                .map(ChangeLogEntry::getVersion).toList());
+        assertEquals(start + 1, changeLogService.latestVersion(stranger.getId()));
+    }
+
+    @Test
+    void testRollback_WritesNothing() {
+        transaction.executeWithoutResult(status -> {
+            changeLogService.recordStatistics(organizer.getId());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(start, changeLogService.currentToken());
+        assertTrue(changeLogService.findSince(organizer.getId(), start, 10).isEmpty());
+    }
+}
@@ -1,26 +1,42 @@
 package com.smartcalendar.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 @ActiveProfiles("h2")
 class ChatGPTServiceTest {
 
-    @InjectMocks
+    @Spy
+    private LlmResponseCache responseCache = new LlmResponseCache(100, Duration.ofMinutes(5));
+
+    private final LlmBudget llmBudget = new LlmBudget(100, Duration.ofMinutes(1), 1000, Duration.ofDays(1),
+            System::currentTimeMillis);
+
     private ChatGPTService chatGPTService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        LlmGuard llmGuard = new LlmGuard(50, Duration.ofSeconds(30), 20, 10, Duration.ofSeconds(30), 100);
+        chatGPTService = new ChatGPTService(responseCache, WebClient.builder().build(), llmGuard, llmBudget);
     }
 
     @Test
@@ -51,4 +67,160 @@ class ChatGPTServiceTest {
         assertTrue(result.containsKey("events"));
         assertTrue(result.containsKey("tasks"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGenerateEventsAndTasks_ReusesCachedAnswer() {
+        ChatGPTService spyService = spy(chatGPTService);
+        doReturn("{\"events\":[],\"tasks\":[]}").when(spyService).askChatGPT(anyString(), anyString());
+
+        spyService.generateEventsAndTasks("Gym tomorrow at 7");
+        Map<String, List<?>> result = spyService.generateEventsAndTasks("  gym   tomorrow at 7 ");
+
+        assertTrue(result.containsKey("events"));
+        verify(spyService, times(1)).askChatGPT(anyString(), anyString());
+        assertEquals(1, responseCache.stats().hitCount());
+        assertEquals(1, responseCache.stats().missCount());
+    }
+
+    @Test
+    void testProcessTranscript_DoesNotCacheUnparsableAnswer() {
+        ChatGPTService spyService = spy(chatGPTService);
+        doReturn("not json").when(spyService).askChatGPT(anyString(), anyString());
+
+        assertThrows(RuntimeException.class, () -> spyService.processTranscript("meeting at noon"));
+        assertThrows(RuntimeException.class, () -> spyService.processTranscript("meeting at noon"));
+
+        verify(spyService, times(2)).askChatGPT(anyString(), anyString());
+    }
+
+    @Test
+    void testCacheKey_SeparatesModels() {
+        assertEquals(LlmResponseCache.key("gpt-4", " Hello \n World"), LlmResponseCache.key("gpt-4", "Hello World"));
+        assertNotEquals(LlmResponseCache.key("gpt-4", "Call MOM"), LlmResponseCache.key("gpt-4", "call mom"));
+        assertNotEquals(LlmResponseCache.key("gpt-4", "hello"), LlmResponseCache.key("gpt-3.5-turbo", "hello"));
+    }
+
+    private HttpServer startCompletionServer(long latencyMillis, AtomicInteger hits) throws Exception {
+        byte[] reply = "{\"choices\":[{\"message\":{\"content\":\"{\\\"events\\\":[],\\\"tasks\\\":[]}\"}}]}"
+                .getBytes(StandardCharsets.UTF_8);
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/chat/completions", exchange -> {
+            hits.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, reply.length);
+            exchange.getResponseBody().write(reply);
+            exchange.close();
+        });
+        server.start();
+        ReflectionTestUtils.setField(chatGPTService, "apiUrl",
+                "http://localhost:" + server.getAddress().getPort() + "/v1/chat/completions");
+        ReflectionTestUtils.setField(chatGPTService, "apiKey", "test-key");
+        return server;
+    }
+
+    @Test
+    void testAskChatGPTAsync_OverlapsSlowResponses() throws Exception {
+        long latencyMillis = 300;
+        int requests = 32;
+        HttpServer server = startCompletionServer(latencyMillis, new AtomicInteger());
+        try {
+            long started = System.nanoTime();
+            List<String> answers = Flux.range(0, requests)
+                    .flatMap(i -> chatGPTService.askChatGPTAsync("question " + i, "gpt-3.5-turbo"), requests)
+                    .collectList()
+                    .block(Duration.ofSeconds(30));
+            long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+
+            assertEquals(requests, answers.size());
+            assertTrue(answers.stream().allMatch("{\"events\":[],\"tasks\":[]}"::equals));
+            // One after another this would take requests * latency (9.6s); overlapping keeps it near a few round trips
+            assertTrue(elapsedMillis < requests * latencyMillis / 4,
+                    "took " + elapsedMillis + "ms for " + requests + " requests");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testAskChatGPTAsync_ChargesTokensToContextUser() throws Exception {
+        HttpServer server = startCompletionServer(0, new AtomicInteger());
+        try {
+            chatGPTService.askChatGPTAsync("12345678", "gpt-3.5-turbo")
+                    .contextWrite(LlmBudget.forUser("alice"))
+                    .block(Duration.ofSeconds(10));
+
+            // No usage in the reply, so the charge is estimated: (8 prompt + 24 answer characters) / 4
+            assertEquals(1000 - 8, llmBudget.remainingTokens("alice"));
+            assertEquals(1000, llmBudget.remainingTokens("bob"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testGenerateEventsAndTasksAsync_CollapsesIdenticalConcurrentRequests() throws Exception {
+        AtomicInteger hits = new AtomicInteger();
+        HttpServer server = startCompletionServer(300, hits);
+        try {
+            List<Map<String, List<?>>> results = Flux.range(0, 20)
+                    .flatMap(i -> chatGPTService.generateEventsAndTasksAsync("Gym tomorrow at 7"), 20)
+                    .collectList()
+                    .block(Duration.ofSeconds(30));
+
+            assertEquals(20, results.size());
+            assertEquals(1, hits.get());
+            assertEquals(19, responseCache.collapsedCount());
+            assertNotSame(results.get(0), results.get(1));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testStreamChatGPT_EmitsTokensBeforeCompletionFinishes() throws Exception {
+        long pauseMillis = 600;
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/chat/completions", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (var body = exchange.getResponseBody()) {
+                body.write(("data: {\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}\n\n"
+                        + "data: {\"choices\":[{\"delta\":{\"content\":\"Hel\"}}]}\n\n").getBytes(StandardCharsets.UTF_8));
+                body.flush();
+                Thread.sleep(pauseMillis);
+                body.write(("data: {\"choices\":[{\"delta\":{\"content\":\"lo\"}}]}\n\n"
+                        + "data: [DONE]\n\n").getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        try {
+            ReflectionTestUtils.setField(chatGPTService, "apiUrl",
+                    "http://localhost:" + server.getAddress().getPort() + "/v1/chat/completions");
+            ReflectionTestUtils.setField(chatGPTService, "apiKey", "test-key");
+
+            long started = System.nanoTime();
+            List<Long> arrivals = new ArrayList<>();
+            List<String> tokens = chatGPTService.streamChatGPT("hello?", "gpt-3.5-turbo")
+                    .doOnNext(token -> arrivals.add(Duration.ofNanos(System.nanoTime() - started).toMillis()))
+                    .collectList()
+                    .block(Duration.ofSeconds(10));
+
+            assertEquals(List.of("Hel", "lo"), tokens);
+            assertTrue(arrivals.get(1) - arrivals.get(0) >= pauseMillis / 2,
+                    "first token at " + arrivals.get(0) + "ms, second at " + arrivals.get(1) + "ms");
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.dto.EventRecipient;
+import com.smartcalendar.model.FanoutJob;
+import com.smartcalendar.model.FanoutStatus;
+import com.smartcalendar.model.NotificationPayload;
+import com.smartcalendar.repository.FanoutJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EventFanoutWorkerTest {
+
+    @Mock
+    private FanoutJobRepository fanoutJobRepository;
+
+    @Mock
+    private EventFanoutService fanoutService;
+
+    private EventFanoutWorker worker;
+    private FanoutJob job;
+    private final UUID eventId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        worker = new EventFanoutWorker(fanoutJobRepository, fanoutService, Runnable::run, Runnable::run, 2,
+                Duration.ofMinutes(2), Duration.ofDays(1));
+        job = new FanoutJob(eventId, 1L, new NotificationPayload("s", "b", "t", "p"), "event:" + eventId, 4);
+        job.setId(10L);
+        when(fanoutService.pageSize()).thenReturn(2);
+    }
+
+    private static EventRecipient recipient(long id) {
+        return new EventRecipient(id, "user" + id + "@example.com");
+    }
+
+    @Test
+    void testPoll_HandsClaimedJobToJobThreadAndWaitsForIt() {
+        List<Runnable> jobThread = new ArrayList<>();
+        worker = new EventFanoutWorker(fanoutJobRepository, fanoutService, jobThread::add, Runnable::run, 2,
+                Duration.ofMinutes(2), Duration.ofDays(1));
+        when(fanoutJobRepository.findRunnable(any(), any())).thenReturn(List.of(job));
+        when(fanoutJobRepository.claim(eq(10L), any(), any())).thenReturn(1);
+        when(fanoutService.participantPage(eventId, 1L, 0L)).thenReturn(List.of());
+        when(fanoutService.inviteePage(eventId, 0L)).thenReturn(List.of());
+
+        worker.poll();
+        worker.poll();
+
+        verify(fanoutJobRepository, times(1)).findRunnable(any(), any());
+        verify(fanoutJobRepository, never()).finish(anyLong(), any(), any());
+
+        jobThread.get(0).run();
+        worker.poll();
+
+        verify(fanoutJobRepository).finish(eq(10L), eq(FanoutStatus.DONE), any());
+        verify(fanoutJobRepository, times(2)).findRunnable(any(), any());
+    }
+
+    @Test
+    void testRun_PagesParticipantsThenInviteesAndRecordsProgress() {
+        List<EventRecipient> first = List.of(recipient(2), recipient(3));
+        List<EventRecipient> second = List.of(recipient(5));
+        List<EventRecipient> invitees = List.of(recipient(40));
+        when(fanoutService.participantPage(eventId, 1L, 0L)).thenReturn(first);
+        when(fanoutService.participantPage(eventId, 1L, 3L)).thenReturn(second);
+        when(fanoutService.inviteePage(eventId, 0L)).thenReturn(invitees);
+
+        worker.run(job);
+
+        verify(fanoutService).enqueue(job.getPayload(), first, "event:" + eventId);
+        verify(fanoutService).enqueue(job.getPayload(), second, "event:" + eventId);
+        verify(fanoutService).enqueue(job.getPayload(), invitees, "event:" + eventId);
+        verify(fanoutJobRepository).recordProgress(eq(10L), eq(5L), eq(0L), eq(3L), any());
+        verify(fanoutJobRepository).recordProgress(eq(10L), eq(5L), eq(40L), eq(4L), any());
+        verify(fanoutJobRepository).finish(eq(10L), eq(FanoutStatus.DONE), any());
+    }
+
+    @Test
+    void testRun_ResumesFromSavedCursor() {
+        job.setParticipantCursor(3L);
+        job.setProcessed(2L);
+        when(fanoutService.participantPage(eventId, 1L, 3L)).thenReturn(List.of(recipient(5)));
+        when(fanoutService.inviteePage(eventId, 0L)).thenReturn(List.of());
+
+        worker.run(job);
+
+        verify(fanoutService, never()).participantPage(eventId, 1L, 0L);
+        verify(fanoutJobRepository).recordProgress(eq(10L), eq(5L), eq(0L), eq(3L), any());
+        verify(fanoutJobRepository).finish(eq(10L), eq(FanoutStatus.DONE), any());
+    }
+
+    @Test
+    void testRun_StopsWhenCancelled() {
+        when(fanoutJobRepository.isCancelRequested(10L)).thenReturn(true);
+
+        worker.run(job);
+
+        verify(fanoutService, never()).enqueue(any(), any(), any());
+        verify(fanoutJobRepository).finish(eq(10L), eq(FanoutStatus.CANCELLED), any());
+    }
+
+    @Test
+    void testRun_FailedChunkLeavesJobForRetry() {
+        when(fanoutService.participantPage(eventId, 1L, 0L)).thenReturn(List.of(recipient(2)));
+        when(fanoutService.enqueue(any(), any(), any())).thenThrow(new IllegalStateException("db down"));
+
+        worker.run(job);
+
+        verify(fanoutJobRepository, never()).recordProgress(anyLong(), anyLong(), anyLong(), anyLong(), any());
+        verify(fanoutJobRepository, never()).finish(anyLong(), any(), any());
+    }
+}
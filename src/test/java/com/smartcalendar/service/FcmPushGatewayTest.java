@@ -0,0 +1,94 @@
+package com.smartcalendar.service;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FcmPushGatewayTest {
+
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private FcmPushGateway gateway(String baseUrl) {
+        GoogleCredentials credentials = GoogleCredentials.create(
+                new AccessToken("test-token", Date.from(Instant.now().plus(Duration.ofHours(1)))));
+        return new FcmPushGateway(WebClient.builder().build(), credentials, "demo", baseUrl, Duration.ofSeconds(2), 4);
+    }
+
+    @Test
+    void testSend_MapsProviderResponsesPerToken() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/projects/demo/messages:send", exchange -> {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            int status;
+            String response;
+            if (!"Bearer test-token".equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                status = 401;
+                response = "{}";
+            } else if (request.contains("gone-device")) {
+                status = 404;
+                response = "{\"error\":{\"status\":\"NOT_FOUND\",\"details\":[{\"errorCode\":\"UNREGISTERED\"}]}}";
+            } else if (request.contains("busy-device")) {
+                status = 503;
+                response = "{\"error\":{\"status\":\"UNAVAILABLE\"}}";
+            } else {
+                status = 200;
+                response = "{\"name\":\"projects/demo/messages/1\"}";
+            }
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+
+        List<PushGateway.Outcome> outcomes = gateway("http://localhost:" + server.getAddress().getPort())
+                .send("Title", "Body", List.of("good-device", "gone-device", "busy-device"));
+
+        assertEquals(List.of(PushGateway.Outcome.DELIVERED, PushGateway.Outcome.INVALID_TOKEN,
+                PushGateway.Outcome.UNAVAILABLE), outcomes);
+    }
+
+    @Test
+    void testSend_UnreachableProviderIsUnavailable() {
+        List<PushGateway.Outcome> outcomes = gateway("http://localhost:1")
+                .send("Title", "Body", List.of("device-1", "device-2"));
+
+        assertEquals(List.of(PushGateway.Outcome.UNAVAILABLE, PushGateway.Outcome.UNAVAILABLE), outcomes);
+    }
+
+    @Test
+    void testOutcomeOf_ClassifiesErrors() {
+        assertEquals(PushGateway.Outcome.RETRY, FcmPushGateway.outcomeOf(HttpStatusCode.valueOf(400),
+                "{\"error\":{\"status\":\"INVALID_ARGUMENT\",\"details\":[{\"fieldViolations\":"
+                        + "[{\"field\":\"message.token\"}]}]}}"));
+        assertEquals(PushGateway.Outcome.RETRY, FcmPushGateway.outcomeOf(HttpStatusCode.valueOf(400),
+                "{\"error\":{\"message\":\"The registration token is not a valid FCM registration token\"}}"));
+        assertEquals(PushGateway.Outcome.REJECTED, FcmPushGateway.outcomeOf(HttpStatusCode.valueOf(400),
+                "{\"error\":{\"status\":\"INVALID_ARGUMENT\",\"message\":\"Message is too big\"}}"));
+        assertEquals(PushGateway.Outcome.REJECTED, FcmPushGateway.outcomeOf(HttpStatusCode.valueOf(400), "not json"));
+        assertEquals(PushGateway.Outcome.INVALID_TOKEN, FcmPushGateway.outcomeOf(HttpStatusCode.valueOf(403),
+                "{\"error\":{\"details\":[{\"errorCode\":\"SENDER_ID_MISMATCH\"}]}}"));
+        assertEquals(PushGateway.Outcome.UNAVAILABLE, FcmPushGateway.outcomeOf(HttpStatusCode.valueOf(429), ""));
+    }
+}
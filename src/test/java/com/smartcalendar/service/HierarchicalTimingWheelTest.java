@@ -0,0 +1,68 @@
+package com.smartcalendar.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void testAdvance_FiresAtDeadlineOnEveryLevel() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 8, 3, 0);
+        wheel.schedule(3_000, "level0");
+        wheel.schedule(20_000, "level1");
+        wheel.schedule(300_000, "level2");
+
+        assertEquals(List.of(), wheel.advance(2_999));
+        assertEquals(List.of("level0"), wheel.advance(3_000));
+        assertEquals(List.of(), wheel.advance(19_999));
+        assertEquals(List.of("level1"), wheel.advance(20_500));
+        assertEquals(List.of(), wheel.advance(299_999));
+        assertEquals(List.of("level2"), wheel.advance(300_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testSchedule_PastDeadlineFiresOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 8, 3, 10_000);
+
+        wheel.schedule(5_000, "overdue");
+
+        assertEquals(List.of("overdue"), wheel.advance(10_000));
+    }
+
+    @Test
+    void testSchedule_RejectsBeyondHorizon() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 8, 2, 0);
+
+        assertTrue(wheel.schedule(wheel.horizonMillis(), "last"));
+        assertFalse(wheel.schedule(wheel.horizonMillis() + 1000, "too far"));
+    }
+
+    @Test
+    void testAdvance_ManyRandomDeadlinesFireNeitherEarlyNorLate() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1000, 64, 4, 0);
+        Random random = new Random(42);
+        int count = 1_000_000;
+        for (int i = 0; i < count; i++) {
+            long deadline = random.nextLong(7L * 24 * 3600 * 1000);
+            assertTrue(wheel.schedule(deadline, deadline));
+        }
+        assertEquals(count, wheel.size());
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 7L * 24 * 3600 * 1000; now += 60_000) {
+            for (Long deadline : wheel.advance(now)) {
+                assertTrue(deadline <= now, "fired early");
+                assertTrue(now - deadline < 60_000 + 1000, "fired late");
+                fired.add(deadline);
+            }
+        }
+        assertEquals(count, fired.size());
+        assertEquals(0, wheel.size());
+    }
+}
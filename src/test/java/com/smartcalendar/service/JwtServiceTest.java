@@ -0,0 +1,78 @@
+package com.smartcalendar.service;
+
+import io.jsonwebtoken.security.WeakKeyException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test_jwt_secret_that_is_long_enough_for_hs256";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 100);
+
+    @Test
+    void testParseToken_Valid() {
+        String token = jwtService.generateToken("testuser", 1L);
+
+        Optional<JwtService.TokenClaims> claims = jwtService.parseToken(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals("testuser", claims.get().username());
+        assertEquals(1L, claims.get().userId());
+        assertTrue(claims.get().expiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void testParseToken_ReusesVerifiedClaims() {
+        String token = jwtService.generateToken("testuser", 1L);
+
+        JwtService.TokenClaims first = jwtService.parseToken(token).orElseThrow();
+        JwtService.TokenClaims second = jwtService.parseToken(token).orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void testParseToken_TamperedSignature() {
+        String token = jwtService.generateToken("testuser", 1L);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertTrue(jwtService.parseToken(tampered).isEmpty());
+    }
+
+    @Test
+    void testParseToken_ForeignKey() {
+        JwtService other = new JwtService("another_secret_that_is_long_enough_for_hs256", 60_000, 100);
+        String token = other.generateToken("testuser", 1L);
+
+        assertTrue(jwtService.parseToken(token).isEmpty());
+        assertFalse(jwtService.validateToken(token, "testuser"));
+    }
+
+    @Test
+    void testParseToken_Expired() {
+        JwtService shortLived = new JwtService(SECRET, -1_000, 100);
+        String token = shortLived.generateToken("testuser", 1L);
+
+        assertTrue(shortLived.parseToken(token).isEmpty());
+    }
+
+    @Test
+    void testValidateToken() {
+        String token = jwtService.generateToken("testuser", 1L);
+
+        assertTrue(jwtService.validateToken(token, "testuser"));
+        assertFalse(jwtService.validateToken(token, "otheruser"));
+        assertEquals("testuser", jwtService.extractUsername(token));
+    }
+
+    @Test
+    void testConstructor_RejectsWeakOrMissingSecret() {
+        assertThrows(WeakKeyException.class, () -> new JwtService("short_secret", 60_000, 100));
+        assertThrows(IllegalStateException.class, () -> new JwtService(" ", 60_000, 100));
+    }
+}
@@ -0,0 +1,81 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmBudgetTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final LlmBudget budget = new LlmBudget(3, Duration.ofMinutes(1), 100, Duration.ofHours(1), now::get);
+
+    @Test
+    void testCheckRequest_RejectsBeyondRateUntilWindowResets() {
+        for (int i = 0; i < 3; i++) {
+            budget.checkRequest("alice");
+        }
+
+        TooManyRequestsException error = assertThrows(TooManyRequestsException.class,
+                () -> budget.checkRequest("alice"));
+        assertTrue(error.getMessage().contains("retry in 60s"));
+        budget.checkRequest("bob");
+
+        now.addAndGet(Duration.ofMinutes(1).toMillis());
+        budget.checkRequest("alice");
+    }
+
+    @Test
+    void testCheckRequest_RejectsWhenTokenBudgetIsUsedUp() {
+        budget.checkRequest("alice");
+        budget.charge("alice", 100);
+
+        assertEquals(0, budget.remainingTokens("alice"));
+        assertThrows(TooManyRequestsException.class, () -> budget.checkRequest("alice"));
+
+        now.addAndGet(Duration.ofHours(1).toMillis());
+        budget.checkRequest("alice");
+        assertEquals(100, budget.remainingTokens("alice"));
+    }
+
+    @Test
+    void testCharge_IgnoresCallsWithoutUser() {
+        budget.charge((String) null, 50);
+        budget.charge(reactor.util.context.Context.empty(), 50);
+
+        assertEquals(100, budget.remainingTokens("alice"));
+    }
+
+    @Test
+    void testCheckRequest_CountsConcurrentRequestsExactly() throws Exception {
+        LlmBudget shared = new LlmBudget(500, Duration.ofMinutes(1), 100, Duration.ofHours(1), now::get);
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    shared.checkRequest("alice");
+                } catch (TooManyRequestsException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(500, rejected.get());
+    }
+}
@@ -0,0 +1,66 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.exceptions.UpstreamUnavailableException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmGuardTest {
+
+    private final LlmGuard guard = new LlmGuard(50, Duration.ofSeconds(30), 4, 4, Duration.ofMinutes(1), 2);
+
+    private void fail(Throwable error) {
+        assertThrows(RuntimeException.class, () -> guard.protect(Mono.error(error)).block());
+    }
+
+    @Test
+    void testProtect_OpensAfterUpstreamFailuresAndFailsFast() {
+        for (int i = 0; i < 4; i++) {
+            fail(new IOException("connection refused"));
+        }
+        AtomicInteger subscribed = new AtomicInteger();
+
+        UpstreamUnavailableException error = assertThrows(UpstreamUnavailableException.class,
+                () -> guard.protect(Mono.fromCallable(subscribed::incrementAndGet)).block());
+
+        assertEquals(CircuitBreaker.State.OPEN, guard.state());
+        assertEquals(0, subscribed.get());
+        assertTrue(error.getMessage().contains("unavailable"));
+    }
+
+    @Test
+    void testProtect_ClientErrorsDoNotOpenBreaker() {
+        for (int i = 0; i < 4; i++) {
+            fail(WebClientResponseException.create(HttpStatus.BAD_REQUEST.value(), "Bad Request", null, null, null));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, guard.state());
+        assertEquals("ok", guard.protect(Mono.just("ok")).block());
+    }
+
+    @Test
+    void testProtect_BulkheadRejectsBeyondConcurrencyLimit() {
+        Sinks.One<String> first = Sinks.one();
+        Sinks.One<String> second = Sinks.one();
+        guard.protect(first.asMono()).subscribe();
+        guard.protect(second.asMono()).subscribe();
+
+        UpstreamUnavailableException error = assertThrows(UpstreamUnavailableException.class,
+                () -> guard.protect(Mono.just("third")).block());
+        assertTrue(error.getMessage().contains("concurrent"));
+
+        first.tryEmitValue("done");
+        assertEquals("ok", guard.protect(Mono.just("ok")).block());
+        second.tryEmitValue("done");
+        assertEquals(CircuitBreaker.State.CLOSED, guard.state());
+    }
+}
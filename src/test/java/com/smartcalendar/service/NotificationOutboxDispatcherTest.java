@@ -0,0 +1,120 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.model.NotificationChannel;
+import com.smartcalendar.model.NotificationPayload;
+import com.smartcalendar.model.OutboxNotification;
+import com.smartcalendar.model.OutboxStatus;
+import com.smartcalendar.repository.OutboxNotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mail.MailSendException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationOutboxDispatcherTest {
+
+    @Mock
+    private OutboxNotificationRepository outboxRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        dispatcher = new NotificationOutboxDispatcher(outboxRepository, notificationService, Runnable::run,
+                10, 3, Duration.ofSeconds(10), Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofDays(7));
+    }
+
+    private OutboxNotification notification(long id, int attempts) {
+        OutboxNotification notification = new OutboxNotification(
+                NotificationChannel.EMAIL, "test@example.com",
+                new NotificationPayload("Subject", "Body", "Title", "Push body"));
+        notification.setId(id);
+        notification.setAttempts(attempts);
+        return notification;
+    }
+
+    @Test
+    void testPoll_DeliversClaimedNotification() {
+        OutboxNotification notification = notification(1L, 0);
+        when(outboxRepository.findDue(anyCollection(), any(), any())).thenReturn(List.of(notification));
+        when(outboxRepository.claim(eq(1L), anyCollection(), any(), any())).thenReturn(1);
+        when(notificationService.deliver(notification)).thenReturn(CompletableFuture.completedFuture(null));
+
+        dispatcher.poll();
+
+        verify(notificationService).deliver(notification);
+        verify(outboxRepository).updateStatus(eq(1L), eq(OutboxStatus.SENT), any(), isNull());
+    }
+
+    @Test
+    void testPoll_SkipsNotificationClaimedElsewhere() {
+        OutboxNotification notification = notification(1L, 0);
+        when(outboxRepository.findDue(anyCollection(), any(), any())).thenReturn(List.of(notification));
+        when(outboxRepository.claim(eq(1L), anyCollection(), any(), any())).thenReturn(0);
+
+        dispatcher.poll();
+
+        verify(notificationService, never()).deliver(any());
+        verify(outboxRepository, never()).updateStatus(any(), any(), any(), any());
+    }
+
+    @Test
+    void testDeliver_FailureSchedulesRetryWithBackoff() {
+        OutboxNotification notification = notification(1L, 0);
+        when(notificationService.deliver(notification))
+                .thenReturn(CompletableFuture.failedFuture(new MailSendException("smtp down")));
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.deliver(notification).join();
+
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).updateStatus(eq(1L), eq(OutboxStatus.PENDING), nextAttempt.capture(), eq("smtp down"));
+        assertFalse(nextAttempt.getValue().isBefore(before.plusSeconds(10)));
+    }
+
+    @Test
+    void testDeliver_GivesUpAfterMaxAttempts() {
+        OutboxNotification notification = notification(1L, 2);
+        when(notificationService.deliver(notification))
+                .thenReturn(CompletableFuture.failedFuture(new MailSendException("smtp down")));
+
+        dispatcher.deliver(notification).join();
+
+        verify(outboxRepository).updateStatus(eq(1L), eq(OutboxStatus.DEAD), any(), eq("smtp down"));
+    }
+
+    @Test
+    void testBackoff_GrowsExponentiallyUpToCap() {
+        assertTrue(dispatcher.backoff(1).compareTo(Duration.ofSeconds(10)) >= 0);
+        assertTrue(dispatcher.backoff(2).compareTo(Duration.ofSeconds(20)) >= 0);
+        assertTrue(dispatcher.backoff(3).compareTo(Duration.ofSeconds(40)) >= 0);
+        Duration capped = dispatcher.backoff(30);
+        assertTrue(capped.compareTo(Duration.ofMinutes(1)) >= 0);
+        assertTrue(capped.compareTo(Duration.ofSeconds(72)) <= 0);
+    }
+
+    @Test
+    void testDeliver_PermanentFailureIsNotRetried() {
+        OutboxNotification notification = notification(1L, 0);
+        when(notificationService.deliver(notification)).thenReturn(
+                CompletableFuture.failedFuture(new PermanentDeliveryException("Device token is no longer registered")));
+
+        dispatcher.deliver(notification).join();
+
+        verify(outboxRepository).updateStatus(eq(1L), eq(OutboxStatus.DEAD), any(), eq("Device token is no longer registered"));
+    }
+}
@@ -0,0 +1,125 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.model.NotificationChannel;
+import com.smartcalendar.model.NotificationPayload;
+import com.smartcalendar.model.OutboxNotification;
+import com.smartcalendar.model.OutboxStatus;
+import com.smartcalendar.repository.NotificationPayloadRepository;
+import com.smartcalendar.repository.OutboxNotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationServiceTest {
+
+    @Mock
+    private BatchingMailDispatcher mailDispatcher;
+
+    @Mock
+    private PushDispatcher pushDispatcher;
+
+    @Mock
+    private OutboxNotificationRepository outboxRepository;
+
+    @Mock
+    private NotificationPayloadRepository payloadRepository;
+
+    @InjectMocks
+    private NotificationService notificationService;
+
+    private final RenderedNotification notification =
+            new RenderedNotification("Subject", "Body", "Push title", "Push body");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(notificationService, "coalesceWindow", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(notificationService, "coalesceMaxDelay", Duration.ofMinutes(5));
+        when(payloadRepository.save(any(NotificationPayload.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxNotification> savedRows() {
+        ArgumentCaptor<Iterable<OutboxNotification>> rows = ArgumentCaptor.forClass(Iterable.class);
+        verify(outboxRepository).saveAll(rows.capture());
+        List<OutboxNotification> result = new ArrayList<>();
+        rows.getValue().forEach(result::add);
+        return result;
+    }
+
+    @Test
+    void testSend_SharesOnePayloadAcrossRecipients() {
+        notificationService.send(notification, List.of("a@example.com", "b@example.com", " "), List.of("device-1"));
+
+        verify(payloadRepository, times(1)).save(any(NotificationPayload.class));
+        List<OutboxNotification> rows = savedRows();
+        assertEquals(3, rows.size());
+        assertSame(rows.get(0).getPayload(), rows.get(2).getPayload());
+        assertEquals(NotificationChannel.PUSH, rows.get(2).getChannel());
+        assertNull(rows.get(0).getCoalesceKey());
+    }
+
+    @Test
+    void testSend_CoalescedDelaysNewRows() {
+        when(outboxRepository.findPendingPayloadIds(anyCollection())).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now();
+
+        notificationService.send(notification, List.of("a@example.com"), List.of(), "event:1");
+
+        List<OutboxNotification> rows = savedRows();
+        assertEquals("event:1:EMAIL:a@example.com", rows.get(0).getCoalesceKey());
+        assertFalse(rows.get(0).getNextAttemptAt().isBefore(before.plusSeconds(30)));
+        verify(outboxRepository, never()).coalesce(any(), any(), any(), any());
+    }
+
+    @Test
+    void testSend_CoalescedReplacesPendingRows() {
+        when(outboxRepository.findPendingPayloadIds(anyCollection())).thenReturn(List.of(7L));
+        when(outboxRepository.findCoalesceKeysByPayload(any(), anyCollection())).thenReturn(List.of("event:1:EMAIL:a@example.com"));
+
+        notificationService.send(notification, List.of("a@example.com", "b@example.com"), List.of(), "event:1");
+
+        verify(outboxRepository).coalesce(
+                eq(List.of("event:1:EMAIL:a@example.com", "event:1:EMAIL:b@example.com")), any(), any(), any());
+        verify(payloadRepository).deleteUnreferenced(List.of(7L));
+        List<OutboxNotification> rows = savedRows();
+        assertEquals(1, rows.size());
+        assertEquals("b@example.com", rows.get(0).getRecipient());
+    }
+
+    @Test
+    void testPurgeFinished_DeletesOldRowsThenTheirPayloads() {
+        List<OutboxStatus> finished = List.of(OutboxStatus.SENT, OutboxStatus.DEAD);
+        when(outboxRepository.findPayloadIdsFinishedBefore(eq(finished), any())).thenReturn(List.of(3L, 4L));
+
+        notificationService.purgeFinished(Duration.ofDays(7));
+
+        InOrder order = inOrder(outboxRepository, payloadRepository);
+        order.verify(outboxRepository).deleteFinishedBefore(eq(finished), any());
+        order.verify(payloadRepository).deleteUnreferenced(List.of(3L, 4L));
+    }
+
+    @Test
+    void testPurgeFinished_NothingOldSkipsDelete() {
+        when(outboxRepository.findPayloadIdsFinishedBefore(anyCollection(), any())).thenReturn(List.of());
+
+        notificationService.purgeFinished(Duration.ofDays(7));
+
+        verify(outboxRepository, never()).deleteFinishedBefore(anyCollection(), any());
+        verify(payloadRepository, never()).deleteUnreferenced(anyCollection());
+    }
+}
@@ -0,0 +1,80 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.model.Event;
+import com.smartcalendar.model.EventType;
+import com.smartcalendar.model.NotificationType;
+import com.smartcalendar.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationTemplatesTest {
+
+    private final NotificationTemplates templates = new NotificationTemplates();
+
+    private Event event() {
+        User organizer = new User();
+        organizer.setUsername("organizer");
+        organizer.setEmail("organizer@example.com");
+        Event event = new Event();
+        event.setTitle("Standup");
+        event.setType(EventType.WORK);
+        event.setStart(LocalDateTime.of(2025, 6, 1, 10, 0));
+        event.setEnd(LocalDateTime.of(2025, 6, 1, 10, 30));
+        event.setOrganizer(organizer);
+        return event;
+    }
+
+    @Test
+    void testRender_Invitation() {
+        RenderedNotification notification = templates.render(NotificationType.EVENT_INVITATION, event());
+
+        assertEquals("[TimeTamer SmartCalendar] Event invitation: Standup", notification.subject());
+        assertEquals("Hello!\n\n" +
+                "You have been invited to the event:\n\n" +
+                "Title: Standup\n" +
+                "Type: WORK\n" +
+                "Start: 2025-06-01 10:00\n" +
+                "End: 2025-06-01 10:30\n" +
+                "Location: unspecified\n\n" +
+                "Description: No description\n\n" +
+                "Organizer: organizer (organizer@example.com)\n\n" +
+                "This is an automatic notification from TimeTamer SmartCalendar.\n", notification.body());
+        assertEquals("Invitation", notification.pushTitle());
+        assertEquals(notification.body(), notification.pushBody());
+    }
+
+    @Test
+    void testRender_UpdateUsesPreviousTitleInSubject() {
+        Event event = event();
+
+        RenderedNotification notification = templates.render(
+                NotificationType.EVENT_UPDATED, event, "Daily sync", event.getOrganizer());
+
+        assertEquals("[TimeTamer SmartCalendar] Event \"Daily sync\" has been updated", notification.subject());
+        assertTrue(notification.body().contains("Title: Standup\n"));
+        assertEquals(notification.subject(), notification.pushTitle());
+    }
+
+    @Test
+    void testRender_PlaceholderLikeTextIsNotExpanded() {
+        Event event = event();
+        event.setDescription("Bring {title} notes");
+
+        RenderedNotification notification = templates.render(NotificationType.EVENT_PARTICIPANT_ADDED, event);
+
+        assertTrue(notification.body().contains("Description: Bring {title} notes\n"));
+        assertEquals("You have been added to event: Standup", notification.pushBody());
+    }
+
+    @Test
+    void testCompiledTemplate_MissingValue() {
+        CompiledTemplate template = CompiledTemplate.compile("Hi {name}!");
+
+        assertEquals("Hi Ann!", template.render(Map.of("name", "Ann")));
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of()));
+    }
+}
@@ -0,0 +1,164 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PushDispatcherTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private PushDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    private PushDispatcher dispatcher(PushGateway gateway, int queueCapacity, PushDispatcher.OverflowPolicy policy) {
+        return new PushDispatcher(gateway, userRepository, Duration.ofMillis(50), 500, 4, queueCapacity, policy, 3);
+    }
+
+    @Test
+    void testSend_BatchesDevicesSharingContent() {
+        LocalPushGateway gateway = new LocalPushGateway(Duration.ofMillis(5));
+        dispatcher = dispatcher(gateway, 10_000, PushDispatcher.OverflowPolicy.REJECT);
+        dispatcher.start();
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            results.add(dispatcher.send("device-" + i, "Event updated", "Standup moved"));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertEquals(5000, gateway.getDeliveredCount());
+        assertTrue(gateway.getBatchCount() <= 20, "expected batched sends but got " + gateway.getBatchCount());
+    }
+
+    @Test
+    void testSend_PrunesInvalidToken() {
+        dispatcher = dispatcher(new LocalPushGateway(Duration.ZERO), 100, PushDispatcher.OverflowPolicy.REJECT);
+        dispatcher.start();
+
+        CompletableFuture<Void> result = dispatcher.send("invalid-device", "Title", "Body");
+
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> result.orTimeout(5, TimeUnit.SECONDS).join());
+        assertInstanceOf(PermanentDeliveryException.class, error.getCause());
+        verify(userRepository).clearDeviceToken("invalid-device");
+    }
+
+    @Test
+    void testSend_PrunesTokenAfterRepeatedFailures() {
+        PushGateway gateway = (title, body, tokens) -> Collections.nCopies(tokens.size(), PushGateway.Outcome.RETRY);
+        dispatcher = dispatcher(gateway, 100, PushDispatcher.OverflowPolicy.REJECT);
+        dispatcher.start();
+
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            CompletableFuture<Void> result = dispatcher.send("flaky-device", "Title", "Body");
+            CompletionException error = assertThrows(CompletionException.class,
+                    () -> result.orTimeout(5, TimeUnit.SECONDS).join());
+            if (attempt < 3) {
+                assertInstanceOf(IllegalStateException.class, error.getCause());
+            } else {
+                assertInstanceOf(PermanentDeliveryException.class, error.getCause());
+            }
+        }
+        verify(userRepository, times(1)).clearDeviceToken("flaky-device");
+    }
+
+    @Test
+    void testSend_GatewayOutageDoesNotPruneTokens() {
+        PushGateway gateway = (title, body, tokens) -> {
+            throw new IllegalStateException("provider down");
+        };
+        dispatcher = dispatcher(gateway, 100, PushDispatcher.OverflowPolicy.REJECT);
+        dispatcher.start();
+
+        for (int attempt = 1; attempt <= 5; attempt++) {
+            CompletableFuture<Void> result = dispatcher.send("healthy-device", "Title", "Body");
+            CompletionException error = assertThrows(CompletionException.class,
+                    () -> result.orTimeout(5, TimeUnit.SECONDS).join());
+            assertInstanceOf(IllegalStateException.class, error.getCause());
+        }
+        verify(userRepository, never()).clearDeviceToken(anyString());
+    }
+
+    @Test
+    void testSend_UnavailableOutcomeDoesNotPruneTokens() {
+        PushGateway gateway = (title, body, tokens) ->
+                Collections.nCopies(tokens.size(), PushGateway.Outcome.UNAVAILABLE);
+        dispatcher = dispatcher(gateway, 100, PushDispatcher.OverflowPolicy.REJECT);
+        dispatcher.start();
+
+        for (int attempt = 1; attempt <= 5; attempt++) {
+            CompletableFuture<Void> result = dispatcher.send("healthy-device", "Title", "Body");
+            CompletionException error = assertThrows(CompletionException.class,
+                    () -> result.orTimeout(5, TimeUnit.SECONDS).join());
+            assertInstanceOf(IllegalStateException.class, error.getCause());
+        }
+        verify(userRepository, never()).clearDeviceToken(anyString());
+    }
+
+    @Test
+    void testSend_RejectedMessageFailsWithoutChargingTokens() {
+        PushGateway gateway = (title, body, tokens) ->
+                Collections.nCopies(tokens.size(), PushGateway.Outcome.REJECTED);
+        dispatcher = dispatcher(gateway, 100, PushDispatcher.OverflowPolicy.REJECT);
+        dispatcher.start();
+
+        for (int attempt = 1; attempt <= 5; attempt++) {
+            CompletableFuture<Void> result = dispatcher.send("healthy-device", "Title", "Body");
+            CompletionException error = assertThrows(CompletionException.class,
+                    () -> result.orTimeout(5, TimeUnit.SECONDS).join());
+            assertInstanceOf(PermanentDeliveryException.class, error.getCause());
+        }
+        verify(userRepository, never()).clearDeviceToken(anyString());
+    }
+
+    @Test
+    void testSend_RejectsWhenQueueIsFull() {
+        dispatcher = dispatcher(new LocalPushGateway(Duration.ZERO), 2, PushDispatcher.OverflowPolicy.REJECT);
+
+        CompletableFuture<Void> first = dispatcher.send("device-1", "Title", "Body");
+        dispatcher.send("device-2", "Title", "Body");
+        CompletableFuture<Void> third = dispatcher.send("device-3", "Title", "Body");
+
+        assertFalse(first.isDone());
+        assertTrue(third.isCompletedExceptionally());
+    }
+
+    @Test
+    void testSend_DropsOldestWhenQueueIsFull() {
+        dispatcher = dispatcher(new LocalPushGateway(Duration.ZERO), 2, PushDispatcher.OverflowPolicy.DROP_OLDEST);
+
+        CompletableFuture<Void> first = dispatcher.send("device-1", "Title", "Body");
+        dispatcher.send("device-2", "Title", "Body");
+        CompletableFuture<Void> third = dispatcher.send("device-3", "Title", "Body");
+
+        assertTrue(first.isCompletedExceptionally());
+        assertFalse(third.isDone());
+    }
+}
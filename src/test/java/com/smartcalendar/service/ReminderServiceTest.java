@@ -0,0 +1,133 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.model.*;
+import com.smartcalendar.repository.EventRepository;
+import com.smartcalendar.repository.ReminderRepository;
+import com.smartcalendar.repository.TaskRepository;
+import com.smartcalendar.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReminderServiceTest {
+
+    @Mock
+    private ReminderRepository reminderRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Spy
+    private NotificationTemplates notificationTemplates = new NotificationTemplates();
+
+    @Mock
+    private ObjectProvider<ReminderScheduler> reminderScheduler;
+
+    @InjectMocks
+    private ReminderService reminderService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+        when(reminderRepository.save(any(Reminder.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private Task task(User owner, LocalDateTime due) {
+        Task task = new Task();
+        task.setId(UUID.randomUUID());
+        task.setTitle("Report");
+        task.setDueDateTime(due);
+        task.setUser(owner);
+        return task;
+    }
+
+    @Test
+    void testAddReminder_ComputesFireTime() {
+        Task task = task(user, LocalDateTime.of(2025, 6, 1, 10, 0));
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+
+        Optional<Reminder> reminder = reminderService.addReminder(1L, ReminderTargetType.TASK, task.getId(), 15);
+
+        assertTrue(reminder.isPresent());
+        assertEquals(LocalDateTime.of(2025, 6, 1, 9, 45), reminder.get().getFireAt());
+    }
+
+    @Test
+    void testAddReminder_ForeignTask() {
+        User other = new User();
+        other.setId(2L);
+        Task task = task(other, LocalDateTime.of(2025, 6, 1, 10, 0));
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+
+        assertTrue(reminderService.addReminder(1L, ReminderTargetType.TASK, task.getId(), 15).isEmpty());
+        verify(reminderRepository, never()).save(any());
+    }
+
+    @Test
+    void testAddReminder_InvalidOffset() {
+        assertThrows(IllegalArgumentException.class,
+                () -> reminderService.addReminder(1L, ReminderTargetType.TASK, UUID.randomUUID(), -1));
+    }
+
+    @Test
+    void testOnTaskChanged_MovesReminders() {
+        Task task = task(user, LocalDateTime.of(2025, 6, 2, 10, 0));
+        Reminder reminder = new Reminder(1L, ReminderTargetType.TASK, task.getId(), 30,
+                LocalDateTime.of(2025, 6, 1, 9, 30));
+        when(reminderRepository.findByTargetTypeAndTargetId(ReminderTargetType.TASK, task.getId()))
+                .thenReturn(List.of(reminder));
+
+        reminderService.onTaskChanged(task);
+
+        assertEquals(LocalDateTime.of(2025, 6, 2, 9, 30), reminder.getFireAt());
+    }
+
+    @Test
+    void testFire_SendsDueAndSkipsMovedReminders() {
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 9, 45);
+        Task task = task(user, LocalDateTime.of(2025, 6, 1, 10, 0));
+        Reminder due = new Reminder(1L, ReminderTargetType.TASK, task.getId(), 15, now);
+        due.setId(1L);
+        Reminder moved = new Reminder(1L, ReminderTargetType.TASK, task.getId(), 15, now.plusDays(1));
+        moved.setId(2L);
+        when(reminderRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(due, moved));
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(user));
+        when(eventRepository.findAllById(anyIterable())).thenReturn(List.of());
+        when(taskRepository.findAllById(anyIterable())).thenReturn(List.of(task));
+
+        int fired = reminderService.fire(List.of(1L, 2L), now);
+
+        assertEquals(1, fired);
+        verify(notificationTemplates).render(NotificationType.TASK_REMINDER, task);
+        verify(notificationService, times(1)).send(any(RenderedNotification.class), eq(List.of("test@example.com")),
+                anyList());
+        verify(reminderRepository).deleteAllInBatch(List.of(due));
+    }
+}
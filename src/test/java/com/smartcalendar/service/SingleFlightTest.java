@@ -0,0 +1,96 @@
+package com.smartcalendar.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testExecute_ConcurrentCallersShareOneCall() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        upstream.complete("answer");
+
+        assertEquals("answer", first.join());
+        assertEquals("answer", second.join());
+        assertEquals(1, calls.get());
+        assertEquals(1, singleFlight.executedCount());
+        assertEquals(1, singleFlight.collapsedCount());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void testExecute_StartsFreshCallAfterCompletion() {
+        singleFlight.execute("key", () -> CompletableFuture.completedFuture("first")).join();
+
+        String second = singleFlight.execute("key", () -> CompletableFuture.completedFuture("second")).join();
+
+        assertEquals("second", second);
+        assertEquals(2, singleFlight.executedCount());
+        assertEquals(0, singleFlight.collapsedCount());
+    }
+
+    @Test
+    void testExecute_DifferentKeysDoNotCollapse() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        singleFlight.execute("a", () -> upstream);
+
+        String other = singleFlight.execute("b", () -> CompletableFuture.completedFuture("b")).join();
+
+        assertEquals("b", other);
+        assertEquals(1, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void testExecute_FailureReachesEveryCallerAndReleasesKey() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("key", () -> upstream);
+        CompletableFuture<String> second = singleFlight.execute("key", () -> upstream);
+
+        upstream.completeExceptionally(new IllegalStateException("upstream down"));
+
+        CompletionException error = assertThrows(CompletionException.class, second::join);
+        assertEquals("upstream down", error.getCause().getMessage());
+        assertTrue(first.isCompletedExceptionally());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void testExecute_CancellingOneCallerKeepsCallForOthers() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("key", () -> upstream);
+        CompletableFuture<String> second = singleFlight.execute("key", () -> upstream);
+
+        first.cancel(true);
+        upstream.complete("answer");
+
+        assertEquals("answer", second.join());
+    }
+
+    @Test
+    void testExecuteBlocking_RethrowsCallFailure() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> singleFlight.executeBlocking("key", () -> {
+                    throw new IllegalArgumentException("bad prompt");
+                }));
+
+        assertEquals("bad prompt", error.getMessage());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+}
@@ -0,0 +1,135 @@
+package com.smartcalendar.service;
+
+import com.smartcalendar.dto.SyncOperation;
+import com.smartcalendar.dto.SyncResult;
+import com.smartcalendar.model.ChangeOperation;
+import com.smartcalendar.model.Event;
+import com.smartcalendar.model.Task;
+import com.smartcalendar.model.User;
+import com.smartcalendar.repository.EventRepository;
+import com.smartcalendar.repository.TaskRepository;
+import com.smartcalendar.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SyncServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ChangeLogService changeLogService;
+
+    @Mock
+    private ReminderService reminderService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private SyncService syncService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(syncService, "entityManager", entityManager);
+        user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+    }
+
+    private SyncOperation operation(SyncOperation.Action action, SyncOperation.EntityType entity, UUID id) {
+        SyncOperation operation = new SyncOperation();
+        operation.setAction(action);
+        operation.setEntity(entity);
+        operation.setId(id);
+        return operation;
+    }
+
+    @Test
+    void testApply_LoadsExistingRowsOnce() {
+        UUID newTaskId = UUID.randomUUID();
+        UUID existingTaskId = UUID.randomUUID();
+        Task existing = new Task();
+        existing.setId(existingTaskId);
+        existing.setUser(user);
+        when(taskRepository.findAllById(anySet())).thenReturn(List.of(existing));
+
+        SyncOperation create = operation(SyncOperation.Action.CREATE, SyncOperation.EntityType.TASK, newTaskId);
+        create.setTask(new Task());
+        SyncOperation update = operation(SyncOperation.Action.UPDATE, SyncOperation.EntityType.TASK, existingTaskId);
+        Task changes = new Task();
+        changes.setTitle("updated");
+        update.setTask(changes);
+
+        List<SyncResult> results = syncService.apply(1L, List.of(create, update));
+
+        assertEquals(2, results.size());
+        assertEquals(SyncResult.Status.APPLIED, results.get(0).getStatus());
+        assertEquals(newTaskId, results.get(0).getId());
+        assertEquals(SyncResult.Status.APPLIED, results.get(1).getStatus());
+        assertEquals("updated", existing.getTitle());
+        verify(taskRepository, times(1)).findAllById(anySet());
+        verify(taskRepository, never()).findById(any());
+        verify(entityManager).persist(argThat(t -> t instanceof Task task && task.getUser() == user));
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void testApply_ReportsFailuresPerOperation() {
+        UUID foreignEventId = UUID.randomUUID();
+        UUID existingEventId = UUID.randomUUID();
+        User stranger = new User();
+        stranger.setId(2L);
+        Event foreign = new Event();
+        foreign.setId(foreignEventId);
+        foreign.setOrganizer(stranger);
+        Event existing = new Event();
+        existing.setId(existingEventId);
+        existing.setOrganizer(user);
+        when(eventRepository.findAllById(anySet())).thenReturn(List.of(foreign, existing));
+
+        SyncOperation forbidden = operation(SyncOperation.Action.DELETE, SyncOperation.EntityType.EVENT, foreignEventId);
+        SyncOperation missing = operation(SyncOperation.Action.DELETE, SyncOperation.EntityType.EVENT, UUID.randomUUID());
+        SyncOperation conflict = operation(SyncOperation.Action.CREATE, SyncOperation.EntityType.EVENT, existingEventId);
+        conflict.setEvent(new Event());
+        SyncOperation invalid = new SyncOperation();
+        SyncOperation deleted = operation(SyncOperation.Action.DELETE, SyncOperation.EntityType.EVENT, existingEventId);
+
+        List<SyncResult> results = syncService.apply(1L, List.of(forbidden, missing, conflict, invalid, deleted));
+
+        assertEquals(SyncResult.Status.FORBIDDEN, results.get(0).getStatus());
+        assertEquals(SyncResult.Status.NOT_FOUND, results.get(1).getStatus());
+        assertEquals(SyncResult.Status.CONFLICT, results.get(2).getStatus());
+        assertEquals(SyncResult.Status.INVALID, results.get(3).getStatus());
+        assertEquals(SyncResult.Status.APPLIED, results.get(4).getStatus());
+        verify(eventRepository).delete(existing);
+        verify(eventRepository, never()).delete(foreign);
+        verify(userService).notifyEventDeleted(existing);
+        verify(changeLogService).recordEvent(existing, ChangeOperation.DELETE);
+    }
+}
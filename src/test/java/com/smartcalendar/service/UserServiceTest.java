@@ -1,21 +1,43 @@
 package com.smartcalendar.service;
 
+import com.smartcalendar.dto.BulkInviteResult;
+import com.smartcalendar.dto.ChangeSet;
+import com.smartcalendar.model.ChangeEntityType;
+import com.smartcalendar.model.ChangeLogEntry;
+import com.smartcalendar.model.ChangeOperation;
+import com.smartcalendar.model.Event;
+import com.smartcalendar.model.Invitation;
+import com.smartcalendar.model.InvitationStatus;
+import com.smartcalendar.model.NotificationType;
+import com.smartcalendar.model.Task;
 import com.smartcalendar.model.User;
+import com.smartcalendar.repository.EventRepository;
+import com.smartcalendar.repository.InvitationRepository;
+import com.smartcalendar.repository.TaskRepository;
 import com.smartcalendar.repository.UserRepository;
 import com.smartcalendar.repository.StatisticsRepository;
+import com.smartcalendar.security.PrincipalCache;
+import com.smartcalendar.security.UserPrincipal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +53,33 @@ class UserServiceTest {
     @Mock
     private StatisticsRepository statisticsRepository;
 
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private InvitationRepository invitationRepository;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ChangeLogService changeLogService;
+
+    @Mock
+    private ReminderService reminderService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private EventFanoutService eventFanoutService;
+
+    @Spy
+    private NotificationTemplates notificationTemplates = new NotificationTemplates();
+
+    @Spy
+    private PrincipalCache principalCache = new PrincipalCache(100, Duration.ofMinutes(5));
+
     @InjectMocks
     private UserService userService;
 
@@ -167,6 +216,7 @@ class UserServiceTest {
 
         User updated = userService.updateEmail(1L, "new@example.com");
         assertEquals("new@example.com", updated.getEmail());
+        verify(principalCache).invalidate(user.getUsername());
     }
 
     @Test
@@ -193,6 +243,90 @@ class UserServiceTest {
         verify(userRepository).deleteById(1L);
     }
 
+    @Test
+    void testDeleteUser_InvalidatesPrincipal() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.deleteUser(1L);
+
+        verify(principalCache).invalidate("testuser");
+    }
+
+    @Test
+    void testFindChangesSince_CollapsesEntries() {
+        User user = new User();
+        user.setId(1L);
+        Task updatedTask = new Task();
+        updatedTask.setId(UUID.randomUUID());
+        updatedTask.setUser(user);
+        UUID deletedTaskId = UUID.randomUUID();
+        UUID deletedEventId = UUID.randomUUID();
+        ChangeLogEntry created = new ChangeLogEntry(1L, ChangeEntityType.EVENT, deletedEventId, ChangeOperation.UPSERT);
+        created.setVersion(11L);
+        ChangeLogEntry deleted = new ChangeLogEntry(1L, ChangeEntityType.EVENT, deletedEventId, ChangeOperation.DELETE);
+        deleted.setVersion(12L);
+        ChangeLogEntry taskDeleted = new ChangeLogEntry(1L, ChangeEntityType.TASK, deletedTaskId, ChangeOperation.DELETE);
+        taskDeleted.setVersion(13L);
+        ChangeLogEntry taskUpdated = new ChangeLogEntry(1L, ChangeEntityType.TASK, updatedTask.getId(), ChangeOperation.UPSERT);
+        taskUpdated.setVersion(14L);
+        when(changeLogService.findSince(1L, 10L, 101)).thenReturn(List.of(created, deleted, taskDeleted, taskUpdated));
+        when(taskRepository.findAllById(anySet())).thenReturn(List.of(updatedTask));
+        when(eventRepository.findAllById(anySet())).thenReturn(List.of());
+
+        ChangeSet changes = userService.findChangesSince(1L, "10", 100);
+
+        assertEquals(List.of(updatedTask), changes.getTasks());
+        assertTrue(changes.getEvents().isEmpty());
+        assertEquals(List.of(deletedTaskId), changes.getDeletedTaskIds());
+        assertEquals(List.of(deletedEventId), changes.getDeletedEventIds());
+        assertEquals("14", changes.getSyncToken());
+        assertFalse(changes.isHasMore());
+    }
+
+    @Test
+    void testFindChangesSince_NoChangesKeepsToken() {
+        when(changeLogService.findSince(1L, 42L, 51)).thenReturn(List.of());
+
+        ChangeSet changes = userService.findChangesSince(1L, "42", 50);
+
+        assertEquals("42", changes.getSyncToken());
+        assertTrue(changes.getTasks().isEmpty());
+        assertTrue(changes.getDeletedEventIds().isEmpty());
+        assertFalse(changes.isFullResync());
+    }
+
+    @Test
+    void testFindChangesSince_PurgedTokenGetsFullResync() {
+        Task task = new Task();
+        task.setId(UUID.randomUUID());
+        when(changeLogService.purgedThrough()).thenReturn(20L);
+        when(changeLogService.currentToken()).thenReturn(25L);
+        when(taskRepository.findByUserId(1L)).thenReturn(List.of(task));
+        when(eventRepository.findByOrganizerOrParticipant(1L)).thenReturn(List.of());
+
+        ChangeSet changes = userService.findChangesSince(1L, "5", 50);
+
+        assertTrue(changes.isFullResync());
+        assertEquals(List.of(task), changes.getTasks());
+        assertEquals("25", changes.getSyncToken());
+    }
+
+    @Test
+    void testFindChangesSince_InvalidToken() {
+        assertThrows(IllegalArgumentException.class, () -> userService.findChangesSince(1L, "abc", 50));
+        assertThrows(IllegalArgumentException.class, () -> userService.findChangesSince(1L, "-1", 50));
+    }
+
+    @Test
+    void testGetCalendarVersion_ReadsLatestVisibleChange() {
+        when(changeLogService.latestVersion(1L)).thenReturn(7L);
+
+        assertEquals(7L, userService.getCalendarVersion(1L));
+    }
+
     @Test
     void testDeleteAllUsersAndStatistics() {
         doNothing().when(statisticsRepository).deleteAll();
@@ -218,6 +352,27 @@ class UserServiceTest {
         assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("nouser"));
     }
 
+    @Test
+    void testLoadPrincipalByUsername_Cached() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        UserPrincipal first = userService.loadPrincipalByUsername("testuser");
+        UserPrincipal second = userService.loadPrincipalByUsername("testuser");
+
+        assertEquals(new UserPrincipal(1L, "testuser"), first);
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void testLoadPrincipalByUsername_NotFound() {
+        when(userRepository.findByUsername("nouser")).thenReturn(Optional.empty());
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadPrincipalByUsername("nouser"));
+    }
+
     @Test
     void testLoadUserByEmail() {
         User user = new User();
@@ -249,6 +404,23 @@ class UserServiceTest {
         assertEquals("newuser", user.getUsername());
     }
 
+    @Test
+    void testChangeCredentials_InvalidatesPrincipal() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("olduser");
+        user.setPassword("oldpass");
+        when(userRepository.findByUsername("olduser")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("oldpass", "oldpass")).thenReturn(true);
+
+        userService.loadPrincipalByUsername("olduser");
+        userService.changeCredentials("olduser", "oldpass", "newuser", "newpass");
+        userService.loadPrincipalByUsername("olduser");
+
+        verify(principalCache).invalidate("olduser");
+        verify(userRepository, times(3)).findByUsername("olduser");
+    }
+
     @Test
     void testChangeCredentials_Fail_WrongPassword() {
         User user = new User();
@@ -295,4 +467,161 @@ class UserServiceTest {
         Optional<User> found = userService.findByLoginOrEmail("nouser");
         assertFalse(found.isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindEventsByUserId() {
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        when(eventRepository.findByOrganizerOrParticipant(1L)).thenReturn(List.of(event));
+
+        List<Event> events = userService.findEventsByUserId(1L);
+
+        assertEquals(1, events.size());
+        assertEquals(event.getId(), events.get(0).getId());
+        verify(eventRepository).findByOrganizerOrParticipant(1L);
+        verify(eventRepository, never()).findAll();
+    }
+
+    @Test
+    void testFindEventsByInvitee() {
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        when(invitationRepository.findEventsByInviteeEmailAndStatus("test@example.com", InvitationStatus.PENDING))
+                .thenReturn(List.of(event));
+
+        List<Event> events = userService.findEventsByInvitee("test@example.com");
+
+        assertEquals(1, events.size());
+        verify(eventRepository, never()).findAll();
+    }
+
+    @Test
+    void testAddInvitation_ReinviteReusesRow() {
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        userService.addInvitation(event, "test@example.com");
+        event.getInvitations().get(0).setStatus(InvitationStatus.DECLINED);
+
+        userService.addInvitation(event, "test@example.com");
+
+        assertEquals(1, event.getInvitations().size());
+        assertEquals(List.of("test@example.com"), event.getInvitees());
+        assertTrue(event.isShared());
+    }
+
+    @Test
+    void testNotifyEventUpdated_RendersOnceForAllRecipients() {
+        User organizer = new User();
+        organizer.setId(1L);
+        organizer.setUsername("organizer");
+        User first = new User();
+        first.setId(2L);
+        first.setEmail("first@example.com");
+        first.setDeviceToken("device-1");
+        User second = new User();
+        second.setId(3L);
+        second.setEmail("second@example.com");
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        event.setTitle("Standup");
+        event.setOrganizer(organizer);
+        event.setParticipants(new ArrayList<>(List.of(organizer, first, second)));
+
+        userService.notifyEventUpdated(event, "Standup", organizer);
+
+        verify(notificationTemplates, times(1)).render(NotificationType.EVENT_UPDATED, event, "Standup", organizer);
+        verify(notificationService, times(1)).send(any(RenderedNotification.class),
+                eq(List.of("first@example.com", "second@example.com")), eq(Arrays.asList("device-1", null)),
+                eq("event:" + event.getId()));
+    }
+
+    @Test
+    void testEditEvent_SubjectNamesPreviousTitle() {
+        User organizer = new User();
+        organizer.setId(1L);
+        organizer.setUsername("organizer");
+        User participant = new User();
+        participant.setId(2L);
+        participant.setEmail("participant@example.com");
+        Event existing = new Event();
+        existing.setId(UUID.randomUUID());
+        existing.setTitle("Standup");
+        existing.setOrganizer(organizer);
+        existing.setParticipants(new ArrayList<>(List.of(organizer, participant)));
+        when(eventRepository.findById(existing.getId())).thenReturn(Optional.of(existing));
+        Event changes = new Event();
+        changes.setTitle("Retro");
+
+        userService.editEvent(existing.getId(), changes);
+
+        ArgumentCaptor<RenderedNotification> notification = ArgumentCaptor.forClass(RenderedNotification.class);
+        verify(notificationService).send(notification.capture(), anyCollection(), anyCollection(), anyString());
+        assertEquals("[TimeTamer SmartCalendar] Event \"Standup\" has been updated", notification.getValue().subject());
+        assertTrue(notification.getValue().body().contains("Retro"));
+    }
+
+    @Test
+    void testNotifyLargeEvent_UsesFanout() {
+        User organizer = new User();
+        organizer.setId(1L);
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        event.setTitle("All hands");
+        event.setOrganizer(organizer);
+        when(eventFanoutService.isLarge(event)).thenReturn(true);
+
+        userService.notifyEventUpdated(event, event.getTitle(), organizer);
+        userService.notifyEventDeleted(event);
+
+        String scope = "event:" + event.getId();
+        verify(eventFanoutService).schedule(eq(event), any(RenderedNotification.class), eq(scope));
+        verify(eventFanoutService).fanOutNow(eq(event), any(RenderedNotification.class), eq(scope));
+        verify(notificationService, never()).send(any(), anyCollection(), anyCollection(), anyString());
+    }
+
+    @Test
+    void testAddInvitations_NotifiesOnlyNewInvitees() {
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        event.getInvitations().add(new Invitation(event, "old@example.com"));
+
+        userService.addInvitations(event, List.of("old@example.com", "new@example.com"));
+
+        verify(userRepository).findByEmailIn(Set.of("new@example.com"));
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(notificationService).send(any(RenderedNotification.class),
+                eq(Set.of("new@example.com")), eq(List.of()));
+        assertEquals(List.of("old@example.com", "new@example.com"), event.getInvitees());
+    }
+
+    @Test
+    void testInviteAll_ResolvesRecipientsInOneQuery() {
+        User organizer = new User();
+        organizer.setId(1L);
+        User alice = new User();
+        alice.setId(2L);
+        alice.setUsername("alice");
+        alice.setEmail("alice@example.com");
+        User bob = new User();
+        bob.setId(3L);
+        bob.setUsername("bob");
+        bob.setEmail("bob@example.com");
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        event.setOrganizer(organizer);
+        event.setParticipants(new ArrayList<>(List.of(organizer, bob)));
+        when(userRepository.findByUsernameInOrEmailIn(anyCollection(), anyCollection())).thenReturn(List.of(alice, bob));
+        when(userRepository.findByEmailIn(anyCollection())).thenReturn(List.of(alice));
+
+        BulkInviteResult result = userService.inviteAll(event,
+                List.of("alice", "alice@example.com", "bob", "nobody@example.com"));
+
+        assertEquals(List.of("alice"), result.getInvited());
+        assertEquals(List.of("alice"), result.getAlreadyInvited());
+        assertEquals(List.of("bob"), result.getAlreadyParticipant());
+        assertEquals(List.of("nobody@example.com"), result.getNotFound());
+        assertEquals(List.of("alice@example.com"), event.getInvitees());
+        verify(userRepository, times(1)).findByUsernameInOrEmailIn(anyCollection(), anyCollection());
+        verify(eventRepository, times(1)).save(event);
+    }
+}